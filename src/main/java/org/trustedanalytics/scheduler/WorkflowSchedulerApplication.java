@@ -21,6 +21,7 @@ import org.springframework.boot.autoconfigure.orm.jpa.JpaBaseConfiguration;
 import org.springframework.cloud.security.oauth2.resource.EnableOAuth2Resource;
 import org.springframework.orm.jpa.vendor.AbstractJpaVendorAdapter;
 import org.springframework.orm.jpa.vendor.EclipseLinkJpaVendorAdapter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.trustedanalytics.utils.errorhandling.EnableRestErrorHandling;
 
 import java.util.HashMap;
@@ -29,6 +30,7 @@ import java.util.Map;
 @SpringBootApplication
 @EnableOAuth2Resource
 @EnableRestErrorHandling
+@EnableScheduling
 public class WorkflowSchedulerApplication extends JpaBaseConfiguration {
     public static void main(String[] args) {
         SpringApplication.run(WorkflowSchedulerApplication.class, args);
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.fs.Path;
 import org.apache.http.conn.ssl.SSLContexts;
 import org.slf4j.Logger;
@@ -28,6 +29,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.endpoint.InfoEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.trustedanalytics.scheduler.client.JobFields;
+import org.trustedanalytics.scheduler.client.OozieClient;
 import org.trustedanalytics.scheduler.config.ClouderaConfiguration;
 import org.trustedanalytics.scheduler.filesystem.HdfsConfigProvider;
 import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
@@ -40,6 +43,8 @@ import java.security.KeyStore;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class WorkflowSchedulerConfiguration {
@@ -66,6 +71,12 @@ public class WorkflowSchedulerConfiguration {
             .build();
     }
 
+    @Bean(name = OozieClient.PAGE_FETCH_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService oozieClientPageFetchExecutor(@Value("${oozie.client.page-fetch-parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("oozie-page-fetch-%d").setDaemon(true).build());
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         final ObjectMapper objectMapper = new ObjectMapper();
@@ -75,6 +86,7 @@ public class WorkflowSchedulerConfiguration {
         simpleModule.addDeserializer(ZoneId.class, new ZoneIdDeserializer());
         simpleModule.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer());
         objectMapper.registerModules(new Jdk8Module(), simpleModule);
+        objectMapper.setFilterProvider(JobFields.serializeAllByDefault());
 
         return objectMapper;
     }
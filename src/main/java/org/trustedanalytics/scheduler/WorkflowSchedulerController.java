@@ -18,29 +18,63 @@ package org.trustedanalytics.scheduler;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.bind.annotation.*;
+import org.trustedanalytics.scheduler.client.CoalescingOozieClient;
+import org.trustedanalytics.scheduler.client.JobFields;
+import org.trustedanalytics.scheduler.client.JobLogQuery;
 import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobAction;
 import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.client.OozieDates;
+import org.trustedanalytics.scheduler.client.OozieJobDetailsCache;
+import org.trustedanalytics.scheduler.client.OozieJobGraphCache;
+import org.trustedanalytics.scheduler.client.OozieJobLogStreamer;
 import org.trustedanalytics.scheduler.client.OozieJobId;
 import org.trustedanalytics.scheduler.client.OozieJobLogs;
+import org.trustedanalytics.scheduler.client.OozieJobsFilter;
 import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformationExtended;
 import org.trustedanalytics.scheduler.filtering.OozieJobFilter;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.index.OozieJobIndex;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJob;
 import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
-import org.trustedanalytics.scheduler.persistence.repository.OozieJobRepository;
 import org.trustedanalytics.scheduler.oozie.OozieService;
 import org.trustedanalytics.scheduler.oozie.jobs.OozieScheduledJobValidator;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopScheduledImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatch;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatchValidator;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJobValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJobValidator;
+import org.trustedanalytics.scheduler.submission.BatchSubmissionResult;
+import org.trustedanalytics.scheduler.submission.BatchSubmissionService;
+import org.trustedanalytics.scheduler.submission.JobSubmission;
+import org.trustedanalytics.scheduler.submission.JobSubmissionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import io.swagger.annotations.ApiOperation;
 
@@ -49,30 +83,60 @@ import javax.validation.Valid;
 @RestController
 public class WorkflowSchedulerController {
 
+    private static final long GRAPH_MAX_AGE_DAYS = 365;
+    private static final String COORDINATOR_ID_SUFFIX = "-C";
+    private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
     private final OozieClient oozieClient;
     private final OozieService oozieService;
     private final OozieJobFilter oozieJobFilter;
-    private final OozieJobRepository oozieJobRepository;
+    private final OrgJobIds orgJobIds;
     private final WorkflowSchedulerConfigurationProvider configurationProvider;
     private final SqoopImportJobValidator sqoopImportJobValidator;
     private final OozieScheduledJobValidator oozieScheduledJobValidator;
-
+    private final OozieJobIndex oozieJobIndex;
+    private final JobSubmissionService jobSubmissionService;
+    private final BatchSubmissionService batchSubmissionService;
+    private final SqoopImportBatchValidator sqoopImportBatchValidator;
+    private final SqoopMultiTableImportJobValidator sqoopMultiTableImportJobValidator;
+    private final OozieJobDetailsCache oozieJobDetailsCache;
+    private final OozieJobGraphCache oozieJobGraphCache;
+    private final OozieJobLogStreamer oozieJobLogStreamer;
+    private final CoalescingOozieClient coalescingOozieClient;
 
     @Autowired
     public WorkflowSchedulerController(OozieClient oozieClient,
                                        OozieService oozieService,
-                                       OozieJobRepository oozieJobRepository,
+                                       OrgJobIds orgJobIds,
                                        OozieJobFilter oozieJobFilter,
                                        WorkflowSchedulerConfigurationProvider configurationProvider,
                                        SqoopImportJobValidator sqoopImportJobValidator,
-                                       OozieScheduledJobValidator oozieScheduledJobValidator) {
+                                       OozieScheduledJobValidator oozieScheduledJobValidator,
+                                       OozieJobIndex oozieJobIndex,
+                                       JobSubmissionService jobSubmissionService,
+                                       BatchSubmissionService batchSubmissionService,
+                                       SqoopImportBatchValidator sqoopImportBatchValidator,
+                                       SqoopMultiTableImportJobValidator sqoopMultiTableImportJobValidator,
+                                       OozieJobDetailsCache oozieJobDetailsCache,
+                                       OozieJobGraphCache oozieJobGraphCache,
+                                       OozieJobLogStreamer oozieJobLogStreamer,
+                                       CoalescingOozieClient coalescingOozieClient) {
         this.oozieClient = oozieClient;
         this.oozieService = oozieService;
-        this.oozieJobRepository = oozieJobRepository;
+        this.orgJobIds = orgJobIds;
         this.oozieJobFilter = oozieJobFilter;
         this.configurationProvider = configurationProvider;
         this.sqoopImportJobValidator = sqoopImportJobValidator;
         this.oozieScheduledJobValidator = oozieScheduledJobValidator;
+        this.oozieJobIndex = oozieJobIndex;
+        this.jobSubmissionService = jobSubmissionService;
+        this.batchSubmissionService = batchSubmissionService;
+        this.sqoopImportBatchValidator = sqoopImportBatchValidator;
+        this.sqoopMultiTableImportJobValidator = sqoopMultiTableImportJobValidator;
+        this.oozieJobDetailsCache = oozieJobDetailsCache;
+        this.oozieJobGraphCache = oozieJobGraphCache;
+        this.oozieJobLogStreamer = oozieJobLogStreamer;
+        this.coalescingOozieClient = coalescingOozieClient;
     }
 
     @InitBinder("sqoopScheduledImportJob")
@@ -85,6 +149,16 @@ public class WorkflowSchedulerController {
         binder.setValidator(sqoopImportJobValidator);
     }
 
+    @InitBinder("sqoopImportBatch")
+    protected void initSqoopImportBatchBinder(WebDataBinder binder) {
+        binder.setValidator(sqoopImportBatchValidator);
+    }
+
+    @InitBinder("sqoopMultiTableImportJob")
+    protected void initSqoopMultiTableImportJobBinder(WebDataBinder binder) {
+        binder.setValidator(sqoopMultiTableImportJobValidator);
+    }
+
     @ApiOperation(
             value = "Submit job",
             notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
@@ -94,7 +168,20 @@ public class WorkflowSchedulerController {
             @RequestParam(value="org") Optional<String> org,
             @RequestBody @Valid SqoopImportJob sqoopImportJob) throws IOException {
         OozieJobId jobId = oozieService.sqoopImportJob(sqoopImportJob, org.get());
-        oozieJobRepository.save(new OozieJobEntity(jobId.getId(), org.get().toString()));
+        orgJobIds.save(new OozieJobEntity(jobId.getId(), org.get().toString()));
+        return jobId;
+    }
+
+    @ApiOperation(
+            value = "Submit job importing many tables in parallel within one workflow",
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
+    )
+    @RequestMapping(value = "/rest/v1/oozie/jobs/multi-table", method = RequestMethod.POST)
+    public OozieJobId scheduleOozieMultiTableJob(
+            @RequestParam(value="org") Optional<String> org,
+            @RequestBody @Valid SqoopMultiTableImportJob sqoopMultiTableImportJob) throws IOException {
+        OozieJobId jobId = oozieService.sqoopMultiTableImportJob(sqoopMultiTableImportJob, org.get());
+        orgJobIds.save(new OozieJobEntity(jobId.getId(), org.get().toString()));
         return jobId;
     }
 
@@ -107,38 +194,112 @@ public class WorkflowSchedulerController {
             @RequestParam(value="org") Optional<String> org,
             @RequestBody @Valid SqoopScheduledImportJob sqoopScheduledImportJob) throws IOException {
         OozieJobId jobId = oozieService.sqoopScheduledImportJob(sqoopScheduledImportJob, org.get());
-        oozieJobRepository.save(new OozieJobEntity(jobId.getId(), org.get().toString()));
+        orgJobIds.save(new OozieJobEntity(jobId.getId(), org.get().toString()));
         return jobId;
     }
 
     @ApiOperation(
-            value = "Get list of coordinated jobs",
+            value = "Submit many jobs at once",
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
+    )
+    @RequestMapping(value = "/rest/v1/oozie/jobs/batch", method = RequestMethod.POST)
+    public BatchSubmissionResult scheduleOozieJobs(
+            @RequestParam(value="org") String org,
+            @RequestBody @Valid SqoopImportBatch sqoopImportBatch) throws IOException {
+        return batchSubmissionService.submit(sqoopImportBatch, org);
+    }
+
+    @ApiOperation(
+            value = "Submit job asynchronously",
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
+    )
+    @RequestMapping(value = "/rest/v1/oozie/submissions/workflow", method = RequestMethod.POST)
+    public ResponseEntity<JobSubmission> submitOozieJob(
+            @RequestParam(value="org") String org,
+            @RequestBody @Valid SqoopImportJob sqoopImportJob) {
+        return accepted(jobSubmissionService.submit(org, () -> oozieService.sqoopImportJob(sqoopImportJob, org)));
+    }
+
+    @ApiOperation(
+            value = "Schedule coordinated job asynchronously",
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
+    )
+    @RequestMapping(value = "/rest/v1/oozie/submissions/coordinated", method = RequestMethod.POST)
+    public ResponseEntity<JobSubmission> submitOozieCoordinatedJob(
+            @RequestParam(value="org") String org,
+            @RequestBody @Valid SqoopScheduledImportJob sqoopScheduledImportJob) {
+        return accepted(jobSubmissionService.submit(org,
+                () -> oozieService.sqoopScheduledImportJob(sqoopScheduledImportJob, org)));
+    }
+
+    @ApiOperation(
+            value = "Get status of asynchronous job submission",
             notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
     )
+    @RequestMapping(value = "/rest/v1/oozie/submissions/{submissionId}", method = RequestMethod.GET)
+    public ResponseEntity<JobSubmission> getSubmission(
+            @PathVariable("submissionId") String submissionId,
+            @RequestParam(value = "org") String org) {
+        return jobSubmissionService.get(submissionId, org)
+                .map(ResponseEntity::ok)
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @ApiOperation(
+            value = "Get list of coordinated jobs",
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization. "
+                    + "Use 'fields' to select returned properties, '*' for all of them",
+            response = OozieCoordinatedJobInformation.class,
+            responseContainer = "List"
+    )
     @RequestMapping(value = "/rest/v1/oozie/jobs/coordinated", method = RequestMethod.GET)
-    public List<OozieCoordinatedJobInformation> getOozieCoordinatedJobsInformation(
+    public MappingJacksonValue getOozieCoordinatedJobsInformation(
             @RequestParam(value = "org") String org,
             @RequestParam(value = "unit") Optional<String> unit,
-            @RequestParam(value = "amount") Optional<Integer> amount) {
+            @RequestParam(value = "amount") Optional<Integer> amount,
+            @RequestParam(value = "fields") Optional<String> fields) {
         final String timeUnit = unit.orElse("days");
         final int timeAmount = amount.orElse(1);
 
-        return oozieJobFilter.filterCoordinatorByOrg(oozieClient.getCoordinatedJobs(timeUnit, timeAmount), org);
+        final List<OozieCoordinatedJobInformation> jobs = oozieJobIndex.covers(timeUnit, timeAmount)
+                ? oozieJobFilter.filterCoordinatorByOrg(oozieJobIndex.getCoordinatedJobs(timeUnit, timeAmount), org)
+                : coalescingOozieClient.getCoordinatedJobs(org, timeUnit, timeAmount);
+
+        return JobFields.parse(fields.orElse(null), JobFields.COORDINATOR_DEFAULTS).apply(jobs);
     }
 
     @ApiOperation(
             value = "Get list of workflow jobs",
-            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization. "
+                    + "Use 'fields' to select returned properties, '*' for all of them",
+            response = OozieWorkflowJobInformationExtended.class,
+            responseContainer = "List"
     )
     @RequestMapping(value = "/rest/v1/oozie/jobs/workflow", method = RequestMethod.GET)
-    public List<OozieWorkflowJobInformationExtended> getOozieWorkflowJobsInformation(
+    public MappingJacksonValue getOozieWorkflowJobsInformation(
             @RequestParam(value = "org") String org,
             @RequestParam(value = "unit") Optional<String> unit,
-            @RequestParam(value = "amount") Optional<Integer> amount) {
+            @RequestParam(value = "amount") Optional<Integer> amount,
+            @RequestParam(value = "status") Optional<String> status,
+            @RequestParam(value = "user") Optional<String> user,
+            @RequestParam(value = "name") Optional<String> name,
+            @RequestParam(value = "fields") Optional<String> fields) {
         final String timeUnit = unit.orElse("days");
         final int timeAmount = amount.orElse(1);
+        final OozieJobsFilter filter = OozieJobsFilter.builder()
+                .status(status.orElse(null))
+                .user(user.orElse(null))
+                .name(name.orElse(null))
+                .build();
+
+        final JobFields selected = JobFields.parse(fields.orElse(null), JobFields.WORKFLOW_DEFAULTS);
+        // conf and actions are only fetched from Oozie when they are going to be returned
+        final boolean details = selected.requiresDetails();
 
-        return oozieJobFilter.filterWorkflowByOrg(oozieClient.getWorkflowJobs(timeUnit, timeAmount), org);
+        if (!details && oozieJobIndex.covers(timeUnit, timeAmount)) {
+            return selected.apply(oozieJobFilter.filterWorkflowByOrg(oozieJobIndex.getWorkflowJobs(timeUnit, timeAmount, filter), org));
+        }
+        return selected.apply(coalescingOozieClient.getWorkflowJobs(org, timeUnit, timeAmount, filter, details));
     }
 
     @ApiOperation(
@@ -150,13 +311,62 @@ public class WorkflowSchedulerController {
         return oozieClient.getJobLogs(jobId);
     }
 
+    @ApiOperation(
+            value = "Stream log of specified job as plain text",
+            notes = "Privilege level: Consumer of this endpoint must be a member of specified organization. "
+                    + "Supports 'Range: bytes=' or 'offset', 'tail' lines, 'grep' text and 'follow' for running jobs. "
+                    + "Range can not be combined with 'tail' or 'grep'"
+    )
+    @RequestMapping(value = "/rest/v1/oozie/jobs/{jobId}/logs/stream", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> streamJobLog(
+            @PathVariable("jobId") String jobId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestParam(value = "offset") Optional<Long> offset,
+            @RequestParam(value = "tail") Optional<Integer> tail,
+            @RequestParam(value = "grep") Optional<String> grep,
+            @RequestParam(value = "follow", defaultValue = "false") boolean follow) {
+        final int tailLines = tail.orElse(0);
+        if (tailLines < 0 || tailLines > JobLogQuery.MAX_TAIL_LINES) {
+            throw new IllegalArgumentException("tail has to be between 0 and " + JobLogQuery.MAX_TAIL_LINES);
+        }
+        final JobLogQuery.JobLogQueryBuilder query = JobLogQuery.builder()
+                .offset(offset.orElse(0L))
+                .tailLines(tailLines)
+                .grep(Strings.emptyToNull(grep.orElse(null)))
+                .follow(follow);
+
+        final ResponseEntity.BodyBuilder response;
+        if (Strings.isNullOrEmpty(range)) {
+            response = ResponseEntity.ok();
+        } else {
+            // Content-Range describes raw log bytes, which filtered lines do not match
+            if (tailLines > 0 || !Strings.isNullOrEmpty(grep.orElse(null))) {
+                throw new IllegalArgumentException("Range can not be combined with tail or grep");
+            }
+            final long[] bytes = parseByteRange(range);
+            query.offset(bytes[0]).length(bytes[1] < 0 ? null : bytes[1] - bytes[0] + 1);
+            response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + bytes[0] + "-" + (bytes[1] < 0 ? "" : bytes[1]) + "/*");
+        }
+        final JobLogQuery logQuery = query.build();
+        return response.contentType(MediaType.TEXT_PLAIN)
+                .body(out -> oozieJobLogStreamer.stream(jobId, logQuery, out));
+    }
+
     @ApiOperation(
             value = "Get details of specified workflow job",
             notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
     )
     @RequestMapping(value = "/rest/v1/oozie/jobs/workflow/{jobId}", method = RequestMethod.GET)
-    public OozieWorkflowJobInformationExtended getWorkflowJobDetails(@PathVariable("jobId") String jobId) {
-        return oozieClient.getWorkflowJobDetails(jobId);
+    public ResponseEntity<OozieWorkflowJobInformationExtended> getWorkflowJobDetails(@PathVariable("jobId") String jobId,
+                                                                                     WebRequest request) {
+        final OozieWorkflowJobInformationExtended job =
+                oozieJobDetailsCache.getWorkflow(jobId, () -> oozieClient.getWorkflowJobDetails(jobId));
+        if (Strings.isNullOrEmpty(job.getLastModTime())) {
+            return ResponseEntity.ok(job);
+        }
+        final long lastModifiedMillis = OozieDates.parseMillis(job.getLastModTime());
+        return conditional(request, job, "\"" + jobId + "-" + job.getStatus() + "-" + lastModifiedMillis + "\"", lastModifiedMillis);
     }
 
     @ApiOperation(
@@ -164,8 +374,11 @@ public class WorkflowSchedulerController {
             notes = "Privilege level: Consumer of this endpoint must be a member of specified organization"
     )
     @RequestMapping(value = "/rest/v1/oozie/jobs/coordinated/{jobId}", method = RequestMethod.GET)
-    public OozieCoordinatedJobInformation getCoordinatedJobDetails(@PathVariable("jobId") String jobId) {
-        return oozieClient.getCoordinatedJobDetails(jobId);
+    public ResponseEntity<OozieCoordinatedJobInformation> getCoordinatedJobDetails(@PathVariable("jobId") String jobId,
+                                                                                   WebRequest request) {
+        final OozieCoordinatedJobInformation job =
+                oozieJobDetailsCache.getCoordinator(jobId, () -> oozieClient.getCoordinatedJobDetails(jobId));
+        return conditional(request, job, coordinatorETag(jobId, job), coordinatorLastModified(job));
     }
 
     @ApiOperation(
@@ -174,7 +387,20 @@ public class WorkflowSchedulerController {
     )
     @RequestMapping(value = "/rest/v1/oozie/jobs/{jobId}/graph", method = RequestMethod.GET)
     public ResponseEntity<byte[]> getJobGraph(@PathVariable("jobId") String jobId) {
-        return oozieClient.getJobGraph(jobId);
+        final OozieJobGraphCache.Graph graph = oozieJobGraphCache.get(jobId, () -> OozieJobDetailsCache.isTerminal(jobStatus(jobId)),
+                () -> oozieClient.getJobGraph(jobId).getBody());
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(graph.isTerminal() ? CacheControl.maxAge(GRAPH_MAX_AGE_DAYS, TimeUnit.DAYS) : CacheControl.noCache())
+                .body(graph.getPng());
+    }
+
+    private String jobStatus(String jobId) {
+        if (jobId.endsWith(COORDINATOR_ID_SUFFIX)) {
+            return oozieJobDetailsCache.getCoordinator(jobId, () -> oozieClient.getCoordinatedJobDetails(jobId)).getStatus();
+        }
+        return oozieJobDetailsCache.getWorkflow(jobId, () -> oozieClient.getWorkflowJobDetails(jobId)).getStatus();
     }
 
     @ApiOperation(
@@ -186,10 +412,7 @@ public class WorkflowSchedulerController {
             @PathVariable("jobId") String jobId,
             @RequestParam(value = "page") Optional<Integer> page,
             @RequestParam(value = "len") Optional<Integer> len) {
-        final int offset = page.orElse(1);
-        final int totalResults = len.orElse(50);
-
-        return oozieClient.getWorkflowJobOfCoordinator(offset, totalResults, jobId);
+        return oozieClient.getWorkflowJobOfCoordinator(page.orElse(1), len.orElse(50), jobId);
     }
 
     @ApiOperation(
@@ -201,6 +424,7 @@ public class WorkflowSchedulerController {
             @PathVariable("jobId") String jobId,
             @RequestParam(value = "action", required = true) String action) {
         oozieClient.manageJob(jobId, action);
+        oozieJobDetailsCache.invalidate(jobId);
     }
 
     @ApiOperation(
@@ -213,4 +437,62 @@ public class WorkflowSchedulerController {
         return configurationProvider.getConfiguration(org);
     }
 
+    private ResponseEntity<JobSubmission> accepted(JobSubmission submission) {
+        final URI statusUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/rest/v1/oozie/submissions/{submissionId}")
+                .queryParam("org", submission.getOrg())
+                .buildAndExpand(submission.getId())
+                .toUri();
+        submission.setStatusUrl(statusUrl.toString());
+        return ResponseEntity.accepted().location(statusUrl).body(submission);
+    }
+
+    /**
+     * @param lastModifiedMillis negative when the modification time is unknown
+     */
+    private static <T> ResponseEntity<T> conditional(WebRequest request, T job, String etag, long lastModifiedMillis) {
+        if (lastModifiedMillis < 0 ? request.checkNotModified(etag) : request.checkNotModified(etag, lastModifiedMillis)) {
+            return null;
+        }
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (lastModifiedMillis >= 0) {
+            response.lastModified(lastModifiedMillis);
+        }
+        return response.body(job);
+    }
+
+    // the returned actions change state while the coordinator status and its last action stay the same
+    private static String coordinatorETag(String jobId, OozieCoordinatedJobInformation job) {
+        final StringBuilder version = new StringBuilder(jobId).append('|').append(job.getStatus()).append('|').append(job.getLastAction());
+        for (OozieCoordinatedJobAction action : Optional.ofNullable(job.getActions()).orElse(Collections.emptyList())) {
+            version.append('|').append(action.getId()).append(':').append(action.getStatus())
+                    .append(':').append(action.getExternalStatus()).append(':').append(action.getLastModifiedTime());
+        }
+        return "\"" + Hashing.md5().hashBytes(version.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // coordinators carry no modification time, the latest change of their actions is the closest to it
+    private static long coordinatorLastModified(OozieCoordinatedJobInformation job) {
+        final long lastModified = Optional.ofNullable(job.getActions()).orElse(Collections.emptyList()).stream()
+                .map(OozieCoordinatedJobAction::getLastModifiedTime)
+                .filter(time -> !Strings.isNullOrEmpty(time))
+                .mapToLong(OozieDates::parseMillis)
+                .max()
+                .orElse(-1);
+        return Math.min(lastModified, System.currentTimeMillis());
+    }
+
+    // single 'bytes=first-[last]' range, suffix ranges need the total log size which Oozie does not report
+    private static long[] parseByteRange(String range) {
+        final Matcher matcher = BYTE_RANGE.matcher(range.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported range: " + range);
+        }
+        final long first = Long.parseLong(matcher.group(1));
+        final long last = matcher.group(2).isEmpty() ? -1 : Long.parseLong(matcher.group(2));
+        if (last >= 0 && last < first) {
+            throw new IllegalArgumentException("Unsupported range: " + range);
+        }
+        return new long[] {first, last};
+    }
 }
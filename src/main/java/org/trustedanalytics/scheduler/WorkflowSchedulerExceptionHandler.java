@@ -18,6 +18,7 @@ package org.trustedanalytics.scheduler;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,7 @@ import org.trustedanalytics.utils.errorhandling.RestErrorHandler;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class WorkflowSchedulerExceptionHandler {
@@ -55,6 +57,11 @@ public class WorkflowSchedulerExceptionHandler {
         ErrorLogger.logAndSendErrorResponse(LOGGER, response, INTERNAL_SERVER_ERROR, e.getMessage(), e);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public void handleRejectedExecutionException(RejectedExecutionException e, HttpServletResponse response) throws Exception {
+        ErrorLogger.logAndSendErrorResponse(LOGGER, response, SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+
     @ExceptionHandler(Exception.class)
     public void handleException(Exception e, HttpServletResponse response) throws Exception {
         RestErrorHandler defaultErrorHandler = new RestErrorHandler();
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.filesystem.HdfsConfigProvider;
+import org.trustedanalytics.scheduler.filtering.OozieJobFilter;
+import org.trustedanalytics.scheduler.security.TokenProvider;
+import org.trustedanalytics.scheduler.utils.SingleFlight;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shares a single Oozie sweep between concurrent identical job list queries, whichever organization they come
+ * from. Every caller filters the shared result down to the jobs of its own organization afterwards.
+ * With Kerberos enabled Oozie is called as the requesting user, so sweeps are only shared between
+ * requests of the same user. Detail calls are coalesced by {@link OozieJobDetailsCache}.
+ */
+@Component
+public class CoalescingOozieClient implements PublicMetrics {
+
+    private final OozieClient oozieClient;
+    private final OozieJobFilter oozieJobFilter;
+    private final TokenProvider tokenProvider;
+    private final boolean kerberosEnabled;
+    private final SingleFlight<List<Object>, List<OozieCoordinatedJobInformation>> coordinators = new SingleFlight<>();
+    private final SingleFlight<List<Object>, List<OozieWorkflowJobInformationExtended>> workflows = new SingleFlight<>();
+
+    @Autowired
+    public CoalescingOozieClient(OozieClient oozieClient, OozieJobFilter oozieJobFilter, TokenProvider tokenProvider,
+                                 HdfsConfigProvider hdfsConfigProvider) {
+        this.oozieClient = oozieClient;
+        this.oozieJobFilter = oozieJobFilter;
+        this.tokenProvider = tokenProvider;
+        this.kerberosEnabled = hdfsConfigProvider.isKerberosEnabled();
+    }
+
+    public List<OozieCoordinatedJobInformation> getCoordinatedJobs(String org, String unit, int amount) {
+        final List<OozieCoordinatedJobInformation> jobs = coordinators.execute(Arrays.asList(caller(), unit, amount),
+                () -> oozieClient.getCoordinatedJobs(unit, amount));
+        return oozieJobFilter.filterCoordinatorByOrg(jobs, org);
+    }
+
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobs(String org, String unit, int amount, OozieJobsFilter filter,
+                                                                     boolean includeDetails) {
+        final List<OozieWorkflowJobInformationExtended> jobs = workflows.execute(
+                Arrays.asList(caller(), unit, amount, filter, includeDetails),
+                () -> oozieClient.getWorkflowJobs(unit, amount, filter, job -> true, includeDetails));
+        return oozieJobFilter.filterWorkflowByOrg(jobs, org);
+    }
+
+    // the technical Oozie account is shared by everyone, kerberized calls carry the user's identity and failures
+    private String caller() {
+        return kerberosEnabled ? tokenProvider.getUserId() : "";
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("counter.oozie.list.queries.executed", coordinators.getExecuted() + workflows.getExecuted()),
+                new Metric<>("counter.oozie.list.queries.shared", coordinators.getShared() + workflows.getShared()));
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Set;
+
+/**
+ * Properties of Oozie jobs selected with the 'fields' query parameter. Job classes are annotated with
+ * {@code @JsonFilter(JobFields.FILTER_ID)}, so everything not selected is left out of the response.
+ */
+public class JobFields {
+
+    public static final String FILTER_ID = "oozieJobFields";
+
+    public static final JobFields WORKFLOW_DEFAULTS =
+            new JobFields(ImmutableSet.of("id", "appName", "status", "createdTime", "endTime", "coordinatorId"));
+
+    public static final JobFields COORDINATOR_DEFAULTS =
+            new JobFields(ImmutableSet.of("coordJobId", "coordJobName", "status", "startTime", "endTime", "lastAction"));
+
+    private static final String ALL = "*";
+    private static final JobFields ALL_FIELDS = new JobFields(ImmutableSet.of());
+
+    // empty means all properties
+    private final Set<String> names;
+
+    private JobFields(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @param fields comma separated property names, '*' for all of them or empty for the defaults
+     */
+    public static JobFields parse(String fields, JobFields defaults) {
+        if (Strings.isNullOrEmpty(fields) || fields.trim().isEmpty()) {
+            return defaults;
+        }
+        Set<String> names = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(fields));
+        return names.contains(ALL) ? ALL_FIELDS : new JobFields(names);
+    }
+
+    /**
+     * Serializes all properties wherever no explicit selection is made.
+     */
+    public static FilterProvider serializeAllByDefault() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    public boolean includes(String field) {
+        return names.isEmpty() || names.contains(field);
+    }
+
+    /**
+     * Whether conf and actions have to be read from Oozie, targetDirs are derived from conf.
+     */
+    public boolean requiresDetails() {
+        return includes("conf") || includes("actions") || includes("targetDirs");
+    }
+
+    public MappingJacksonValue apply(Object value) {
+        MappingJacksonValue selected = new MappingJacksonValue(value);
+        selected.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID, names.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        return selected;
+    }
+}
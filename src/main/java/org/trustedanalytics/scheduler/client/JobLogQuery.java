@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Selects part of an Oozie job log: a byte range of the raw log, only lines containing a text
+ * and/or only the last lines. Following keeps the stream open until the job finishes.
+ */
+@Data
+@Builder
+public class JobLogQuery {
+
+    public static final int MAX_TAIL_LINES = 10000;
+
+    private long offset;
+    // null means up to the end of the log
+    private Long length;
+    private int tailLines;
+    // matched literally, user supplied regular expressions could take exponential time per line
+    private String grep;
+    private boolean follow;
+
+    public boolean isLineBased() {
+        return grep != null || tailLines > 0;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Jobs kept from one page of Oozie /v1/jobs along with what is needed to decide about further pages.
+ */
+@Getter
+@AllArgsConstructor
+class JobPage<T> {
+
+    private final List<T> jobs;
+    // number of jobs Oozie returned on this page, before any filtering
+    private final int entriesRead;
+    // null when Oozie did not report it
+    private final Integer total;
+    private final boolean windowExceeded;
+}
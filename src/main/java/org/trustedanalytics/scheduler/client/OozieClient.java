@@ -16,41 +16,46 @@
 package org.trustedanalytics.scheduler.client;
 
 import com.google.common.base.Strings;
+import org.apache.commons.lang.StringEscapeUtils;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestOperations;
 import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
 import org.trustedanalytics.scheduler.rest.RestOperationsFactory;
 import org.trustedanalytics.scheduler.security.TokenProvider;
 import org.trustedanalytics.scheduler.utils.OozieNameResolver;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Component
 public class OozieClient {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(OozieClient.class);
+    // pool shared by all listings for fetching their remaining pages in parallel, owned by the application context
+    public static final String PAGE_FETCH_EXECUTOR = "oozieClientPageFetchExecutor";
+
     private static final String JOBS_URL = "/oozie/v1/jobs";
     private static final String SINGLE_JOB_URL = "/oozie/v1/job/";
     private static final String NO_ACTION = null;
@@ -61,108 +66,193 @@ public class OozieClient {
 
     private JobContext jobContext;
 
+    private final ExecutorService pageFetchExecutor;
+
     @Autowired
-    public OozieClient(RestOperationsFactory restOperationsFactory, TokenProvider tokenProvider, JobContext jobContext) {
+    public OozieClient(RestOperationsFactory restOperationsFactory, TokenProvider tokenProvider, JobContext jobContext,
+                       @Qualifier(PAGE_FETCH_EXECUTOR) ExecutorService pageFetchExecutor) {
         this.restTemplateFactory = restOperationsFactory;
         this.tokenProvider = tokenProvider;
         this.jobContext = jobContext;
+        this.pageFetchExecutor = pageFetchExecutor;
     }
 
     public List<OozieWorkflowJobInformationExtended> getWorkflowJobs(String unit, int amount) {
+        return getWorkflowJobs(unit, amount, OozieJobsFilter.none());
+    }
 
-        int offset = 0;
-        int len = 50;
-        LocalDateTime searchedTime = getSearchedDate(unit, amount);
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobs(String unit, int amount, OozieJobsFilter filter) {
+        return getWorkflowJobsCreatedAfter(OozieDates.searchedDate(unit, amount), filter);
+    }
+
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobs(String unit, int amount, OozieJobsFilter filter,
+                                                                     Predicate<OozieWorkflowJobInformationExtended> predicate,
+                                                                     boolean includeDetails) {
+        return getWorkflowJobsCreatedAfter(OozieDates.searchedDate(unit, amount), filter, predicate, includeDetails);
+    }
+
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobsCreatedAfter(LocalDateTime searchedTime, OozieJobsFilter filter) {
+        return getWorkflowJobsCreatedAfter(searchedTime, filter, job -> true, false);
+    }
+
+    /**
+     * Streams workflow pages created after given time, keeping only jobs accepted by both the filter and the predicate.
+     * Without details the 'conf' and 'actions' of each job are not kept, so heap use is bounded by the result size.
+     */
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobsCreatedAfter(LocalDateTime searchedTime, OozieJobsFilter filter,
+                                                                                 Predicate<OozieWorkflowJobInformationExtended> predicate,
+                                                                                 boolean includeDetails) {
+
+        final int len = 50;
+        final long searchedMillis = OozieDates.toMillis(searchedTime);
+        final String filterParameter = filter.toQueryParameter(searchedTime);
+        final Predicate<OozieWorkflowJobInformationExtended> accepted = predicate.and(filter::matches);
+        final OozieJobPageReader reader = new OozieJobPageReader(jobContext.getNameNode());
+        final RestOperations restOperations = restTemplateFactory.getRestTemplate();
         List<OozieWorkflowJobInformationExtended> oozieWorkflowJobsInformationExtended = new ArrayList<>();
 
-        do {
-            oozieWorkflowJobsInformationExtended.addAll(
-                getJobs(offset, len, "wf", new ParameterizedTypeReference<Page<OozieWorkflowJobInformation>>() {})
-                    .stream()
-                    .filter(job -> getDate(job.getCreatedTime()).isAfter(searchedTime))
-                    .map(job -> new OozieWorkflowJobInformationExtended(job, jobContext.getNameNode()))
-                    .collect(Collectors.toList()));
-            offset += len;
-        } while (oozieWorkflowJobsInformationExtended.size() == offset);
+        fetchPages(len,
+                offset -> restOperations.execute(jobsUrl(offset, len, "wf", filterParameter), HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON)),
+                        response -> reader.readWorkflows(response.getBody(), searchedMillis, accepted, includeDetails)),
+                JobPage::getTotal,
+                // Oozie returns workflows newest first, so the first job outside of the window ends the search
+                page -> !page.isWindowExceeded() && page.getEntriesRead() == len,
+                page -> oozieWorkflowJobsInformationExtended.addAll(page.getJobs()));
         return oozieWorkflowJobsInformationExtended;
     }
 
     public List<OozieCoordinatedJobInformation> getCoordinatedJobs(String unit, int amount) {
+        final long searchedMillis = OozieDates.toMillis(OozieDates.searchedDate(unit, amount));
+        return getCoordinatedJobs(job -> job.lastActionAfter(searchedMillis));
+    }
 
-        int offset = 0;
-        int len = 2000;
-        LocalDateTime searchedTime = getSearchedDate(unit, amount);
+    public List<OozieCoordinatedJobInformation> getCoordinatedJobs(Predicate<OozieCoordinatedJobInformation> predicate) {
+        return getCoordinatedJobs(OozieJobsFilter.none(), predicate);
+    }
+
+    /**
+     * Lists coordinators matching the filter on the Oozie side, only status, user and name criteria apply to coordinators.
+     */
+    public List<OozieCoordinatedJobInformation> getCoordinatedJobs(OozieJobsFilter filter,
+                                                                   Predicate<OozieCoordinatedJobInformation> predicate) {
+
+        final int len = 2000;
+        final String filterParameter = filter.toQueryParameter(null);
+        final RestOperations restOperations = restTemplateFactory.getRestTemplate();
         List<OozieCoordinatedJobInformation> oozieCoordinatedJobInformations = new ArrayList<>();
 
-        do {
-            oozieCoordinatedJobInformations.addAll(
-                    getJobs(offset, len, "coord", new ParameterizedTypeReference<Page<OozieCoordinatedJobInformation>>() {
-                    })
-                            .stream()
-                            .filter(job -> Strings.isNullOrEmpty(job.getLastAction()) || getDate(job.getLastAction()).isAfter(searchedTime))
-                            .collect(Collectors.toList()));
-            offset += len;
-        } while (oozieCoordinatedJobInformations.size() == offset);
+        fetchPages(len,
+                offset -> {
+                    Page<OozieCoordinatedJobInformation> page = restOperations.exchange(jobsUrl(offset, len, "coord", filterParameter), HttpMethod.GET, null,
+                            new ParameterizedTypeReference<Page<OozieCoordinatedJobInformation>>() {}).getBody();
+                    List<OozieCoordinatedJobInformation> entries = Optional.ofNullable(page.getEntries()).orElse(new ArrayList<>());
+                    return new JobPage<>(entries.stream().filter(predicate).collect(Collectors.toList()),
+                            entries.size(), page.getTotal(), false);
+                },
+                JobPage::getTotal,
+                page -> page.getEntriesRead() == len,
+                page -> oozieCoordinatedJobInformations.addAll(page.getJobs()));
         return oozieCoordinatedJobInformations;
     }
 
-    private static LocalDateTime getDate(String inputDate) {
+    /**
+     * Fetches the first page and, once it reports the total, all remaining pages in parallel. Pages are handed to the
+     * consumer in order until one of them says there is nothing more to read. Jobs created while paging may push
+     * the total further, so after the known pages paging goes on one page at a time.
+     */
+    private <P> void fetchPages(int len, IntFunction<P> fetch, Function<P, Integer> totalOf, Predicate<P> hasMore, Consumer<P> consumer) {
+        P page = fetch.apply(1);
+        consumer.accept(page);
+        int offset = 1 + len;
+        if (!hasMore.test(page)) {
+            return;
+        }
 
-        SimpleDateFormat formatter = new SimpleDateFormat("EE, dd MMM yyyy HH:mm:ss");
-        Date date = null;
-        try {
-            date = formatter.parse(inputDate.substring(0, inputDate.lastIndexOf(' ')));
-        } catch (ParseException e) {
-            LOGGER.error(e.toString());
-            throw new IllegalArgumentException("Could not parse date: " + inputDate);
+        final Integer total = totalOf.apply(page);
+        if (total != null && total >= offset) {
+            final List<CompletableFuture<P>> remaining = new ArrayList<>();
+            for (; offset <= total; offset += len) {
+                final int pageOffset = offset;
+                remaining.add(CompletableFuture.supplyAsync(() -> fetch.apply(pageOffset), pageFetchExecutor));
+            }
+            for (int i = 0; i < remaining.size(); i++) {
+                try {
+                    page = join(remaining.get(i));
+                } catch (RuntimeException e) {
+                    // the listing fails anyway, pages still waiting for a thread are not fetched
+                    cancel(remaining.subList(i + 1, remaining.size()));
+                    throw e;
+                }
+                consumer.accept(page);
+                if (!hasMore.test(page)) {
+                    cancel(remaining.subList(i + 1, remaining.size()));
+                    return;
+                }
+            }
         }
-        String timezone = inputDate.substring(inputDate.lastIndexOf(' ') + 1);
 
-        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.of(timezone));
+        do {
+            page = fetch.apply(offset);
+            consumer.accept(page);
+            offset += len;
+        } while (hasMore.test(page));
     }
 
-    private LocalDateTime getSearchedDate(String unit, int amount) {
-        LocalDateTime currentTime = LocalDateTime.ofInstant(new Date().toInstant(), ZoneId.of("GMT"));
-
-        if ("days".equalsIgnoreCase(unit)) {
-            return currentTime.minusDays(amount);
-        }
-        if ("weeks".equalsIgnoreCase(unit)) {
-            return currentTime.minusWeeks(amount);
-        }
-        if ("hours".equalsIgnoreCase(unit)) {
-            return currentTime.minusHours(amount);
+    private static <P> P join(CompletableFuture<P> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        return currentTime.minusDays(1);
     }
 
-    private <T> List<T> getJobs(int offset, int len, String jobType, ParameterizedTypeReference<Page<T>> responseType) {
-        return getForEntity(jobContext.getOozieApiUrl() + JOBS_URL + "?jobtype=" + jobType + "&len=" + len + "&offset=" + offset, responseType)
-                .getEntries();
+    private static void cancel(List<? extends CompletableFuture<?>> pages) {
+        pages.forEach(future -> future.cancel(false));
     }
 
-    private <T> List<T> getJobs(String appName, String jobType, ParameterizedTypeReference<Page<T>> responseType) {
-        final String name = OozieNameResolver.resolveWorkflowAppName(appName);
-        return getForEntity(jobContext.getOozieApiUrl() + JOBS_URL + "?filter=name=" + name + "&len=20000&jobtype=" + jobType, responseType)
-                .getEntries();
+    private String jobsUrl(int offset, int len, String jobType, String filter) {
+        String filterParameter = Strings.isNullOrEmpty(filter) ? "" : "&filter=" + filter;
+        return jobContext.getOozieApiUrl() + JOBS_URL + "?jobtype=" + jobType + "&len=" + len + "&offset=" + offset + filterParameter;
     }
 
-    private <T> Page<T> getForEntity(String url, ParameterizedTypeReference<Page<T>> parameterizedTypeReference) {
-        return restTemplateFactory.getRestTemplate().exchange(url, HttpMethod.GET, null, parameterizedTypeReference).getBody();
+    public OozieJobId submitCoordinatedJob(String jobDefinitionDirectory, String targetDir) {
+        return submitCoordinatedJob(jobDefinitionDirectory, targetDir, Collections.emptyMap());
     }
 
-    public OozieJobId submitCoordinatedJob(String jobDefinitionDirectory, String targetDir) {
-        return submitJob(getRequestBody(tokenProvider.getUserId(), jobDefinitionDirectory, "oozie.coord.application.path", targetDir), NO_ACTION);
+    /**
+     * @param parameters additional job configuration properties, e.g. values of a shared application template
+     */
+    public OozieJobId submitCoordinatedJob(String jobDefinitionDirectory, String targetDir, Map<String, String> parameters) {
+        return submitJob(getRequestBody(tokenProvider.getUserId(), jobDefinitionDirectory, "oozie.coord.application.path", targetDir, parameters), NO_ACTION);
     }
 
     public OozieJobId submitWorkflowJob(String jobDefinitionDirectory, String targetDir) {
-        return submitJob(getRequestBody(tokenProvider.getUserId(), jobDefinitionDirectory, "oozie.wf.application.path", targetDir), START_ACTION);
+        return submitWorkflowJob(jobDefinitionDirectory, targetDir, Collections.emptyMap());
+    }
+
+    /**
+     * @param parameters additional job configuration properties, e.g. values of a shared application template
+     */
+    public OozieJobId submitWorkflowJob(String jobDefinitionDirectory, String targetDir, Map<String, String> parameters) {
+        return submitJob(getRequestBody(tokenProvider.getUserId(), jobDefinitionDirectory, "oozie.wf.application.path", targetDir, parameters), START_ACTION);
     }
 
     public OozieJobLogs getJobLogs(String jobId) {
         return new OozieJobLogs(restTemplateFactory.getRestTemplate().getForEntity(jobContext.getOozieApiUrl() + SINGLE_JOB_URL + jobId + "?show=log", String.class).getBody());
     }
 
+    /**
+     * Hands the raw log response body to the reader, so that the log does not have to be held in memory.
+     */
+    public <T> T readJobLog(String jobId, ResponseExtractor<T> reader) {
+        return restTemplateFactory.getRestTemplate().execute(jobContext.getOozieApiUrl() + SINGLE_JOB_URL + jobId + "?show=log",
+                HttpMethod.GET, request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.ALL)), reader);
+    }
+
     private <T> T getJobDetails(String jobId, ParameterizedTypeReference<T> parameterizedTypeReference) {
         return restTemplateFactory.getRestTemplate().exchange(jobContext.getOozieApiUrl() + SINGLE_JOB_URL + jobId, HttpMethod.GET, null, parameterizedTypeReference).getBody();
     }
@@ -181,17 +271,48 @@ public class OozieClient {
         restTemplateFactory.getRestTemplate().put(jobContext.getOozieApiUrl() + SINGLE_JOB_URL + jobId + "?action=" + action, null, String.class);
     }
 
-    public List<OozieWorkflowJobInformationExtended> getWorkflowJobOfCoordinator(int offset, int len, String jobId) {
-        return getJobs(getCoordinatedJobDetails(jobId).getCoordJobName(), "wf", new ParameterizedTypeReference<Page<OozieWorkflowJobInformation>>() {
-        })
+    /**
+     * Pages through the coordinator's actions on the Oozie side, newest first, and returns workflows
+     * materialized by them. Actions that have not started a workflow yet are left out. Rows are built
+     * from the action data, so the page takes a single Oozie call instead of one per workflow.
+     */
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobOfCoordinator(int page, int len, String jobId) {
+        final String url = jobContext.getOozieApiUrl() + SINGLE_JOB_URL + jobId + "?show=info&order=desc&offset="
+                + ((page - 1) * len + 1) + "&len=" + len;
+        final OozieCoordinatedJobInformation coordinator =
+                restTemplateFactory.getRestTemplate().getForObject(url, OozieCoordinatedJobInformation.class);
+        if (coordinator == null || coordinator.getActions() == null) {
+            return new ArrayList<>();
+        }
+
+        return coordinator.getActions()
                 .stream()
-                .filter(job -> Objects.nonNull(job.getParentId()) && job.getParentId().contains(jobId))
-                .map(job -> new OozieWorkflowJobInformationExtended(job, jobContext.getNameNode()))
-                .skip((offset - 1) * len)
-                .limit(len)
+                .filter(action -> !Strings.isNullOrEmpty(action.getExternalId()))
+                .map(action -> workflowOfAction(coordinator, action))
                 .collect(Collectors.toList());
     }
 
+    private OozieWorkflowJobInformationExtended workflowOfAction(OozieCoordinatedJobInformation coordinator,
+                                                                OozieCoordinatedJobAction action) {
+        final OozieWorkflowJobInformation workflow = new OozieWorkflowJobInformation();
+        workflow.setId(action.getExternalId());
+        workflow.setParentId(action.getId());
+        workflow.setAppName(OozieNameResolver.resolveWorkflowAppName(coordinator.getCoordJobName()));
+        workflow.setUser(coordinator.getUser());
+        workflow.setGroup(coordinator.getGroup());
+        // externalStatus is the status of the workflow itself, the action status lags behind it
+        workflow.setStatus(Strings.isNullOrEmpty(action.getExternalStatus()) ? action.getStatus() : action.getExternalStatus());
+        workflow.setCreatedTime(action.getCreatedTime());
+        // nominal time is when the coordinator scheduled the run, the created time stands in when Oozie leaves it out
+        workflow.setStartTime(Strings.isNullOrEmpty(action.getNominalTime()) ? action.getCreatedTime() : action.getNominalTime());
+        workflow.setLastModTime(action.getLastModifiedTime());
+        // the action is last modified when its workflow finishes
+        workflow.setEndTime(OozieJobDetailsCache.isTerminal(workflow.getStatus()) ? action.getLastModifiedTime() : null);
+        workflow.setConsoleUrl(action.getConsoleUrl());
+        workflow.setConf(action.getRunConf());
+        return new OozieWorkflowJobInformationExtended(workflow, jobContext.getNameNode());
+    }
+
     public ResponseEntity<byte[]> getJobGraph(String jobId) {
 
         ResponseEntity<byte[]> response = restTemplateFactory.getRestTemplate().getForEntity(jobContext.getOozieApiUrl() + SINGLE_JOB_URL + jobId + "?show=graph", byte[].class);
@@ -219,24 +340,26 @@ public class OozieClient {
         return restTemplateFactory.getRestTemplate().postForEntity(url, entity, OozieJobId.class, jobProperties).getBody();
     }
 
-    private String getRequestBody(String userName, String jobDefinitionDirectory, String jobType, String targetDir) {
-
-        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?> " +
-                "<configuration>" +
-                property("user.name", userName) +
-                property(jobType, jobDefinitionDirectory) +
-                property("oozie.libpath", "/user/oozie/share/lib/") +
-                property("oozie.use.system.libpath", "true") +
-                property("nameNode", jobContext.getNameNode()) +
-                property("queueName", "default") +
-                property("jobTracker", jobContext.getJobTracker()) +
-                property("targetDir", targetDir) +
-                "</configuration>";
+    private String getRequestBody(String userName, String jobDefinitionDirectory, String jobType, String targetDir,
+                                  Map<String, String> parameters) {
+
+        final StringBuilder body = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?> ")
+                .append("<configuration>")
+                .append(property("user.name", userName))
+                .append(property(jobType, jobDefinitionDirectory))
+                .append(property("oozie.libpath", "/user/oozie/share/lib/"))
+                .append(property("oozie.use.system.libpath", "true"))
+                .append(property("nameNode", jobContext.getNameNode()))
+                .append(property("queueName", "default"))
+                .append(property("jobTracker", jobContext.getJobTracker()))
+                .append(property("targetDir", targetDir));
+        parameters.forEach((name, value) -> body.append(property(name, value)));
+        return body.append("</configuration>").toString();
     }
 
     private static String property(String name, String value) {
         return Optional.ofNullable(value)
-                .map(v -> "<property><name>" + name + "</name><value>" + v + "</value></property>")
+                .map(v -> "<property><name>" + name + "</name><value>" + StringEscapeUtils.escapeXml(v) + "</value></property>")
                 .orElse("");
     }
 }
@@ -15,14 +15,18 @@
  */
 package org.trustedanalytics.scheduler.client;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.google.common.base.Strings;
 import lombok.Data;
 import org.apache.htrace.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonFilter(JobFields.FILTER_ID)
 public class OozieCoordinatedJobInformation {
 
     private String status;
@@ -53,4 +57,12 @@ public class OozieCoordinatedJobInformation {
 
     @JsonProperty("mat_throttling")
     private Integer matThrottling;
+
+    public boolean lastActionAfter(LocalDateTime time) {
+        return lastActionAfter(OozieDates.toMillis(time));
+    }
+
+    public boolean lastActionAfter(long epochMillis) {
+        return Strings.isNullOrEmpty(lastAction) || OozieDates.parseMillis(lastAction) > epochMillis;
+    }
 }
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parses Oozie timestamps such as {@code "Thu, 25 Feb 2016 15:54:00 GMT"}. The formatter is immutable and
+ * shared, zone ids are resolved once per distinct zone name and comparisons are done on epoch millis.
+ */
+public class OozieDates {
+
+    private static final DateTimeFormatter OOZIE_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss", Locale.US);
+    private static final String GMT_SUFFIX = " GMT";
+    private static final ConcurrentMap<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+    private OozieDates() {
+    }
+
+    /**
+     * @return given Oozie timestamp as UTC local date time, comparable with {@link #now()}
+     */
+    public static LocalDateTime parse(String inputDate) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(parseMillis(inputDate)), ZoneOffset.UTC);
+    }
+
+    public static long parseMillis(String inputDate) {
+        int zoneSeparator = inputDate.lastIndexOf(' ');
+        if (zoneSeparator < 0) {
+            throw new IllegalArgumentException("Could not parse date: " + inputDate);
+        }
+        try {
+            TemporalAccessor parsed = OOZIE_DATE_FORMAT.parse(inputDate, new ParsePosition(0));
+            return LocalDateTime.from(parsed)
+                    .atZone(zoneOf(inputDate, zoneSeparator))
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Could not parse date: " + inputDate, e);
+        }
+    }
+
+    public static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    public static long toMillis(LocalDateTime utcTime) {
+        return utcTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime searchedDate(String unit, int amount) {
+        LocalDateTime currentTime = now();
+
+        if ("days".equalsIgnoreCase(unit)) {
+            return currentTime.minusDays(amount);
+        }
+        if ("weeks".equalsIgnoreCase(unit)) {
+            return currentTime.minusWeeks(amount);
+        }
+        if ("hours".equalsIgnoreCase(unit)) {
+            return currentTime.minusHours(amount);
+        }
+        return currentTime.minusDays(1);
+    }
+
+    private static ZoneId zoneOf(String inputDate, int zoneSeparator) {
+        // Oozie reports all times in GMT, so the common case needs no lookup
+        if (inputDate.endsWith(GMT_SUFFIX)) {
+            return ZoneOffset.UTC;
+        }
+        return ZONES.computeIfAbsent(inputDate.substring(zoneSeparator + 1), ZoneId::of);
+    }
+}
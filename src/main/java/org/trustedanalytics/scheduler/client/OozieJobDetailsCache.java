@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps details of Oozie jobs fetched for the job detail endpoints. Jobs that reached a terminal state
+ * do not change anymore, so they are kept much longer than jobs which are still running. The least
+ * recently used entries are dropped once the cache is full.
+ */
+@Component
+public class OozieJobDetailsCache implements PublicMetrics {
+
+    private static final Set<String> TERMINAL_STATES = ImmutableSet.of("SUCCEEDED", "KILLED", "FAILED", "DONEWITHERROR");
+
+    private final Cache<String, CachedDetails> details;
+    private final long terminalTtlMillis;
+    private final long activeTtlMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public OozieJobDetailsCache(@Value("${oozie.job-details-cache.max-size:10000}") long maxSize,
+                                @Value("${oozie.job-details-cache.terminal-ttl-seconds:86400}") long terminalTtlSeconds,
+                                @Value("${oozie.job-details-cache.active-ttl-seconds:10}") long activeTtlSeconds) {
+        this.details = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.terminalTtlMillis = TimeUnit.SECONDS.toMillis(terminalTtlSeconds);
+        this.activeTtlMillis = TimeUnit.SECONDS.toMillis(activeTtlSeconds);
+    }
+
+    public OozieWorkflowJobInformationExtended getWorkflow(String jobId, Supplier<OozieWorkflowJobInformationExtended> loader) {
+        return get("wf:" + jobId, loader, OozieWorkflowJobInformation::getStatus);
+    }
+
+    public OozieCoordinatedJobInformation getCoordinator(String jobId, Supplier<OozieCoordinatedJobInformation> loader) {
+        return get("coord:" + jobId, loader, OozieCoordinatedJobInformation::getStatus);
+    }
+
+    /**
+     * @return true when a job in given status will not change anymore
+     */
+    public static boolean isTerminal(String status) {
+        return TERMINAL_STATES.contains(status);
+    }
+
+    public void invalidate(String jobId) {
+        details.invalidate("wf:" + jobId);
+        details.invalidate("coord:" + jobId);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long requests = hits.get() + misses.get();
+        return Arrays.asList(
+                new Metric<>("gauge.oozie.job.details.cache.size", details.size()),
+                new Metric<>("gauge.oozie.job.details.cache.hit.ratio", requests == 0 ? 0.0 : (double) hits.get() / requests),
+                new Metric<>("counter.oozie.job.details.calls.avoided", hits.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Supplier<T> loader, Function<T, String> statusOf) {
+        CachedDetails cached = details.getIfPresent(key);
+        if (cached != null && cached.isFresh()) {
+            hits.incrementAndGet();
+            return (T) cached.job;
+        }
+        if (cached != null) {
+            details.asMap().remove(key, cached);
+        }
+
+        try {
+            return (T) details.get(key, () -> {
+                misses.incrementAndGet();
+                T job = loader.get();
+                return new CachedDetails(job, isTerminal(statusOf.apply(job)) ? terminalTtlMillis : activeTtlMillis);
+            }).job;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to get details of job " + key, e.getCause());
+        }
+    }
+
+    private static final class CachedDetails {
+        private final Object job;
+        private final long expiresAt;
+
+        private CachedDetails(Object job, long ttlMillis) {
+            this.job = job;
+            this.expiresAt = System.currentTimeMillis() + ttlMillis;
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps PNG graphs rendered by Oozie for jobs in a terminal state, whose graph never changes, within
+ * a byte budget. Concurrent requests for the same job share a single render, also for running jobs,
+ * whose graphs are dropped as soon as the render is handed out. A render only counts as final when it
+ * started after the terminal status had been observed, so a graph of a running job is never kept.
+ */
+@Component
+public class OozieJobGraphCache implements PublicMetrics {
+
+    private static final String RUNNING_SUFFIX = "@running";
+
+    private final Cache<String, byte[]> graphs;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+
+    @Autowired
+    public OozieJobGraphCache(@Value("${oozie.job-graph-cache.max-bytes:67108864}") long maxBytes) {
+        this.graphs = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Weigher<String, byte[]>) (jobId, png) -> png.length)
+                .build();
+    }
+
+    /**
+     * @param terminal tells whether the job reached a terminal state, it is only asked when no final graph is cached
+     */
+    public Graph get(String jobId, BooleanSupplier terminal, Supplier<byte[]> renderer) {
+        requests.incrementAndGet();
+        final byte[] cached = graphs.getIfPresent(jobId);
+        if (cached != null) {
+            return new Graph(cached, true);
+        }
+
+        final boolean isTerminal = terminal.getAsBoolean();
+        // renders started while the job was running are shared under their own key and never kept
+        final String key = isTerminal ? jobId : jobId + RUNNING_SUFFIX;
+        final byte[] png;
+        try {
+            png = graphs.get(key, () -> {
+                renders.incrementAndGet();
+                return renderer.get();
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to get graph of job " + jobId, e.getCause());
+        }
+        if (!isTerminal) {
+            graphs.asMap().remove(key, png);
+        }
+        return new Graph(png, isTerminal);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("gauge.oozie.job.graph.cache.size", graphs.size()),
+                new Metric<>("counter.oozie.job.graph.renders", renders.get()),
+                new Metric<>("counter.oozie.job.graph.renders.avoided", requests.get() - renders.get()));
+    }
+
+    @Data
+    public static class Graph {
+        private final byte[] png;
+        // rendered after the job had finished, so it never changes
+        private final boolean terminal;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pipes Oozie job logs to an output stream without buffering the whole log. Only a single line,
+ * or the requested number of tail lines, is held in memory at once.
+ */
+@Component
+public class OozieJobLogStreamer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OozieClient oozieClient;
+    private final long followIntervalMillis;
+    private final long followTimeoutMillis;
+
+    @Autowired
+    public OozieJobLogStreamer(OozieClient oozieClient,
+                               @Value("${oozie.logs.follow-interval-ms:2000}") long followIntervalMillis,
+                               @Value("${oozie.logs.follow-timeout-ms:600000}") long followTimeoutMillis) {
+        this.oozieClient = oozieClient;
+        this.followIntervalMillis = followIntervalMillis;
+        this.followTimeoutMillis = followTimeoutMillis;
+    }
+
+    /**
+     * Oozie can not serve a part of the log, so every pass while following downloads the log again
+     * and skips what has already been written.
+     */
+    public void stream(String jobId, JobLogQuery query, OutputStream out) throws IOException {
+        final boolean follow = query.isFollow() && query.getLength() == null;
+        final long deadline = System.currentTimeMillis() + followTimeoutMillis;
+        long position = query.getOffset();
+        int tailLines = query.getTailLines();
+
+        while (true) {
+            final long start = position;
+            final int tail = tailLines;
+            final boolean finished = !follow || isFinished(jobId) || System.currentTimeMillis() >= deadline;
+
+            position += oozieClient.readJobLog(jobId, response -> copy(response.getBody(), start, query, tail, finished, out));
+            out.flush();
+
+            if (finished) {
+                return;
+            }
+            tailLines = 0;
+            sleep(followIntervalMillis);
+        }
+    }
+
+    private long copy(InputStream in, long skip, JobLogQuery query, int tailLines, boolean lastPass, OutputStream out)
+            throws IOException {
+        try {
+            skipFully(in, skip);
+        } catch (EOFException e) {
+            return 0;
+        }
+        final long limit = query.getLength() == null ? Long.MAX_VALUE : query.getLength();
+        return query.isLineBased()
+                ? copyLines(in, limit, query, tailLines, lastPass, out)
+                : copyBytes(in, limit, out);
+    }
+
+    private static long copyBytes(InputStream in, long limit, OutputStream out) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long copied = 0;
+        int read;
+        while (copied < limit && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - copied))) != -1) {
+            out.write(buffer, 0, read);
+            copied += read;
+        }
+        return copied;
+    }
+
+    /**
+     * @return number of raw bytes consumed; a trailing line without line break is only consumed on the last pass,
+     * so that following resumes at the beginning of that line
+     */
+    private static long copyLines(InputStream raw, long limit, JobLogQuery query, int tailLines, boolean lastPass,
+                                  OutputStream out) throws IOException {
+        final InputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        final Deque<byte[]> tail = new ArrayDeque<>();
+        long read = 0;
+        long consumed = 0;
+        int b;
+        while (read < limit && (b = in.read()) != -1) {
+            read++;
+            line.write(b);
+            if (b == '\n') {
+                consumed += line.size();
+                emit(line, query, tailLines, tail, out);
+            }
+        }
+        if (line.size() > 0 && (lastPass || read >= limit)) {
+            consumed += line.size();
+            emit(line, query, tailLines, tail, out);
+        }
+        for (byte[] tailLine : tail) {
+            out.write(tailLine);
+        }
+        return consumed;
+    }
+
+    private static void emit(ByteArrayOutputStream line, JobLogQuery query, int tailLines, Deque<byte[]> tail,
+                             OutputStream out) throws IOException {
+        final boolean matches = query.getGrep() == null
+                || new String(line.toByteArray(), StandardCharsets.UTF_8).contains(query.getGrep());
+        if (matches && tailLines > 0) {
+            tail.addLast(line.toByteArray());
+            if (tail.size() > tailLines) {
+                tail.removeFirst();
+            }
+        } else if (matches) {
+            line.writeTo(out);
+        }
+        line.reset();
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private boolean isFinished(String jobId) {
+        return OozieJobDetailsCache.isTerminal(oozieClient.getWorkflowJobDetails(jobId).getStatus());
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while following job log", e);
+        }
+    }
+}
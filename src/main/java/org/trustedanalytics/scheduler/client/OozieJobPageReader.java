@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reads an Oozie /v1/jobs workflow page token by token, so only jobs that pass the time window and
+ * the given predicate are ever materialized. Unless details are requested, the 'actions' subtree and
+ * the 'conf' blob are skipped without being read into memory, so target directories, which are
+ * derived from conf, are only available along with the details.
+ */
+class OozieJobPageReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String nameNode;
+
+    OozieJobPageReader(String nameNode) {
+        this.nameNode = nameNode;
+    }
+
+    /**
+     * Oozie returns workflows newest first, so reading stops at the first job created at or before
+     * {@code createdAfterMillis}.
+     */
+    JobPage<OozieWorkflowJobInformationExtended> readWorkflows(InputStream body, long createdAfterMillis,
+                                                               Predicate<OozieWorkflowJobInformationExtended> predicate,
+                                                               boolean includeDetails) throws IOException {
+        final List<OozieWorkflowJobInformationExtended> jobs = new ArrayList<>();
+        int entriesRead = 0;
+        Integer total = null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new JobPage<>(jobs, entriesRead, total, false);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("total".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    total = parser.getIntValue();
+                } else if ("workflows".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        entriesRead++;
+                        if (!readWorkflow(parser, createdAfterMillis, predicate, includeDetails, jobs)) {
+                            return new JobPage<>(jobs, entriesRead, total, true);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new JobPage<>(jobs, entriesRead, total, false);
+    }
+
+    /**
+     * @return false when the workflow is outside of the window
+     */
+    private boolean readWorkflow(JsonParser parser, long createdAfterMillis,
+                                 Predicate<OozieWorkflowJobInformationExtended> predicate,
+                                 boolean includeDetails, List<OozieWorkflowJobInformationExtended> jobs) throws IOException {
+        ObjectNode node = readJob(parser, includeDetails);
+
+        String createdTime = node.path("createdTime").asText(null);
+        if (createdTime != null && OozieDates.parseMillis(createdTime) <= createdAfterMillis) {
+            return false;
+        }
+
+        OozieWorkflowJobInformationExtended job = new OozieWorkflowJobInformationExtended(
+                MAPPER.treeToValue(node, OozieWorkflowJobInformation.class), nameNode);
+        if (predicate.test(job)) {
+            jobs.add(job);
+        }
+        return true;
+    }
+
+    private static ObjectNode readJob(JsonParser parser, boolean includeDetails) throws IOException {
+        ObjectNode node = MAPPER.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (!includeDetails && ("actions".equals(field) || "conf".equals(field))) {
+                parser.skipChildren();
+            } else {
+                node.set(field, MAPPER.readTree(parser));
+            }
+        }
+        return node;
+    }
+}
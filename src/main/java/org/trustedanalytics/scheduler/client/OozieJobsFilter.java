@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import lombok.Builder;
+import lombok.Data;
+import org.apache.commons.lang.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Data
+@Builder
+public class OozieJobsFilter {
+
+    private static final DateTimeFormatter CREATED_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
+    private static final String RESERVED_CHARACTERS = ";=&#{}";
+
+    private String status;
+    // any of the given statuses, Oozie joins repeated criteria of the same name with OR
+    private Collection<String> statuses;
+    private String user;
+    private String name;
+
+    public static OozieJobsFilter none() {
+        return OozieJobsFilter.builder().build();
+    }
+
+    /**
+     * Builds value of the Oozie 'filter' query parameter. Creation time has only minute precision
+     * on Oozie side, so the window is rounded down and the exact cut off has to be applied by the caller.
+     */
+    public String toQueryParameter(LocalDateTime createdAfterUtc) {
+        List<String> criteria = new ArrayList<>();
+        Optional.ofNullable(createdAfterUtc).ifPresent(time -> criteria.add("startcreatedtime=" + time.format(CREATED_TIME_FORMAT)));
+        Optional.ofNullable(status).ifPresent(value -> criteria.add(criterion("status", value.toUpperCase())));
+        Optional.ofNullable(statuses).ifPresent(values -> values.forEach(value -> criteria.add(criterion("status", value.toUpperCase()))));
+        Optional.ofNullable(user).ifPresent(value -> criteria.add(criterion("user", value)));
+        Optional.ofNullable(name).ifPresent(value -> criteria.add(criterion("name", value)));
+        return String.join(";", criteria);
+    }
+
+    /**
+     * Oozie has no escaping in the filter syntax and the parameter is expanded as part of a URI template,
+     * so values able to add or break criteria, query parameters or template variables are rejected.
+     */
+    private static String criterion(String key, String value) {
+        if (StringUtils.containsAny(value, RESERVED_CHARACTERS)) {
+            throw new IllegalArgumentException(String.format("Filter %s must not contain any of '%s'", key, RESERVED_CHARACTERS));
+        }
+        return key + "=" + value;
+    }
+
+    public boolean matches(OozieWorkflowJobInformation job) {
+        return (status == null || status.equalsIgnoreCase(job.getStatus()))
+                && (statuses == null || statuses.stream().anyMatch(value -> value.equalsIgnoreCase(job.getStatus())))
+                && (user == null || user.equals(job.getUser()))
+                && (name == null || name.equals(job.getAppName()));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.trustedanalytics.scheduler.client;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 
@@ -23,6 +24,7 @@ import java.util.List;
 @Data
 //ToDo: Configure client and remove JsonIgnoreProperties
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonFilter(JobFields.FILTER_ID)
 public class OozieWorkflowJobInformation {
 
     protected String group;
@@ -32,12 +32,12 @@ import java.util.regex.Pattern;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class OozieWorkflowJobInformationExtended extends OozieWorkflowJobInformation {
 
+    private static final Pattern TARGET_DIR_PATTERN = Pattern.compile("targetDir<\\/name>[\\s]*<value>([^<]*)<\\/value>");
+
+    // derived from parentId and conf on first access, usually when the job is serialized
     private String coordinatorId;
     private List<String> targetDirs;
 
-    @Getter(AccessLevel.PRIVATE)
-    private final Pattern patter = Pattern.compile("targetDir<\\/name>[\\s]*<value>([^<]*)<\\/value>");
-
     @Getter(AccessLevel.PRIVATE)
     private final String dirPrefix;
 
@@ -62,8 +62,20 @@ public class OozieWorkflowJobInformationExtended extends OozieWorkflowJobInforma
         user = oozieWorkflowJobInformation.user;
         actions = oozieWorkflowJobInformation.actions;
         this.dirPrefix = dirPrefix;
-        this.coordinatorId = getCoordinatorIdFromParentId(oozieWorkflowJobInformation.getParentId());
-        this.targetDirs = extractTargetIdsFromConfiguration(conf);
+    }
+
+    public String getCoordinatorId() {
+        if (coordinatorId == null) {
+            coordinatorId = getCoordinatorIdFromParentId(parentId);
+        }
+        return coordinatorId;
+    }
+
+    public List<String> getTargetDirs() {
+        if (targetDirs == null) {
+            targetDirs = extractTargetIdsFromConfiguration(conf);
+        }
+        return targetDirs;
     }
 
     private String getCoordinatorIdFromParentId(String parentId) {
@@ -77,7 +89,7 @@ public class OozieWorkflowJobInformationExtended extends OozieWorkflowJobInforma
         List<String> extractedTargetDirs= new ArrayList<>();
         if (StringUtils.isEmpty(conf))
             return extractedTargetDirs;
-        final Matcher matcher = patter.matcher(conf);
+        final Matcher matcher = TARGET_DIR_PATTERN.matcher(conf);
         if(matcher.find() && matcher.groupCount() > 0) {
             extractedTargetDirs.add(matcher.group(1));
         }
@@ -25,5 +25,9 @@ public class Database {
     protected String name;
     protected Collection<JDBCDriver> drivers;
     protected Schema schema;
+    // upper bound of parallel map tasks a single import may open against the database
+    protected Integer maxMappers;
+    // output file formats sqoop can produce for the database, any format is accepted when not given
+    protected Collection<String> fileFormats;
 
 }
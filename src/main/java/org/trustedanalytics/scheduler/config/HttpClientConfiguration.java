@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.trustedanalytics.scheduler.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+
+@Configuration
+public class HttpClientConfiguration {
+
+    @Value("${http.client.max-total:100}")
+    @Getter
+    private int maxTotal;
+
+    @Value("${http.client.max-per-route:50}")
+    @Getter
+    private int maxPerRoute;
+
+    @Value("${http.client.connect-timeout-ms:5000}")
+    @Getter
+    private int connectTimeoutMs;
+
+    @Value("${http.client.read-timeout-ms:60000}")
+    @Getter
+    private int readTimeoutMs;
+
+    @Value("${http.client.lease-timeout-ms:10000}")
+    @Getter
+    private int leaseTimeoutMs;
+
+    @Value("${http.client.keep-alive-ms:30000}")
+    @Getter
+    private long keepAliveMs;
+
+    @Value("${http.client.idle-timeout-ms:30000}")
+    @Getter
+    private long idleTimeoutMs;
+}
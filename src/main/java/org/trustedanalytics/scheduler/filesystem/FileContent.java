@@ -0,0 +1,27 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.filesystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Content written directly into a newly created file, the stream is closed by the caller.
+ */
+@FunctionalInterface
+public interface FileContent {
+    void writeTo(OutputStream out) throws IOException;
+}
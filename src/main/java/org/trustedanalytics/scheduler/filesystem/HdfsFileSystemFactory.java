@@ -28,6 +28,7 @@ import org.springframework.stereotype.Component;
 import org.trustedanalytics.hadoop.config.client.oauth.TapOauthToken;
 import org.trustedanalytics.hadoop.kerberos.KrbLoginManager;
 import org.trustedanalytics.hadoop.kerberos.KrbLoginManagerFactory;
+import org.trustedanalytics.scheduler.security.KerberosSubjectCache;
 
 import javax.security.auth.login.LoginException;
 import java.io.IOException;
@@ -42,9 +43,12 @@ public class HdfsFileSystemFactory implements FileSystemFactory {
 
     HdfsConfigProvider hdfsConfigProvider;
 
+    private final KerberosSubjectCache kerberosSubjectCache;
+
     @Autowired
-    public HdfsFileSystemFactory(HdfsConfigProvider configProvider)  {
+    public HdfsFileSystemFactory(HdfsConfigProvider configProvider, KerberosSubjectCache kerberosSubjectCache)  {
         hdfsConfigProvider = configProvider;
+        this.kerberosSubjectCache = kerberosSubjectCache;
     }
 
     @Override
@@ -66,10 +70,10 @@ public class HdfsFileSystemFactory implements FileSystemFactory {
             if (hdfsConfigProvider.isKerberosEnabled()) {
                 KrbLoginManager loginManager =
                         KrbLoginManagerFactory.getInstance().getKrbLoginManagerInstance(hdfsConfigProvider.getKdc(), hdfsConfigProvider.getRealm());
-                loginManager.loginInHadoop(loginManager.loginWithJWTtoken(jwtToken), hdfsConfigProvider.getHadoopConf());
+                loginManager.loginInHadoop(kerberosSubjectCache.login(jwtToken), hdfsConfigProvider.getHadoopConf());
             }
             URI uri = new URI(hdfsConfigProvider.getHdfsOrgUri(org));
-            return FileSystem.get(uri, hdfsConfigProvider.getHadoopConf(), jwtToken.getUserId());
+            return FileSystem.newInstance(uri, hdfsConfigProvider.getHadoopConf(), jwtToken.getUserId());
 
         } catch (IOException | InterruptedException | URISyntaxException |LoginException e) {
             LOGGER.error("Exception occurred", e);
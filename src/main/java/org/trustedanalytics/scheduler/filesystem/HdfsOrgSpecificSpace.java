@@ -19,17 +19,31 @@ import org.trustedanalytics.scheduler.security.TokenProvider;
 import org.trustedanalytics.scheduler.utils.StreamUtils;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileContext;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.security.AccessControlException;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_DEFAULT;
+import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_KEY;
 
 public class HdfsOrgSpecificSpace implements OrgSpecificSpace {
 
@@ -38,34 +52,70 @@ public class HdfsOrgSpecificSpace implements OrgSpecificSpace {
     public static final String WORKFLOW_FILE_NAME = "workflow.xml";
     public static final String SQOOP_DEFAULT_TARGET_DIR = "sqoop-imports";
     public static final String OOZIE_JOBS_DIR = "oozie-jobs";
+    public static final String OOZIE_TEMPLATES_DIR = "oozie-templates";
 
     private final FileSystem fileSystem;
     private final Path root;
     private final TokenProvider tokenProvider;
+    private final Set<Path> knownDirectories;
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public HdfsOrgSpecificSpace(FileSystem fileSystem, String orgId, TokenProvider tokenProvider) {
+        this(fileSystem, orgId, tokenProvider, ConcurrentHashMap.newKeySet());
+    }
+
+    public HdfsOrgSpecificSpace(FileSystem fileSystem, String orgId, TokenProvider tokenProvider, Set<Path> knownDirectories) {
+        this(fileSystem, orgId, tokenProvider, knownDirectories, () -> {});
+    }
+
+    /**
+     * @param knownDirectories directories known to exist, shared between spaces using the same file system
+     * @param release called once when the space is closed
+     */
+    public HdfsOrgSpecificSpace(FileSystem fileSystem, String orgId, TokenProvider tokenProvider, Set<Path> knownDirectories,
+                                Runnable release) {
         Objects.requireNonNull(fileSystem);
         Objects.requireNonNull(orgId);
 
         this.fileSystem = fileSystem;
         this.root = new Path(String.format("%s/org/%s/", fileSystem.getUri(), orgId));
         this.tokenProvider = tokenProvider;
+        this.knownDirectories = knownDirectories;
+        this.release = release;
     }
 
     @Override
-    public Path createOozieCoordinator(Path oozieJobDir, InputStream in) throws IOException {
-        final Path coordinatorPath = new Path(oozieJobDir, COORDINATOR_FILE_NAME);
-        createFile(coordinatorPath, in);
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+
+    @Override
+    public Path createOozieCoordinator(Path oozieJobDir, FileContent content) throws IOException {
+        final Path coordinatorPath = resolveOozieCoordinator(oozieJobDir);
+        writeFile(coordinatorPath, content);
         return coordinatorPath;
     }
 
     @Override
-    public Path createOozieWorkflow(Path oozieJobDir, InputStream in) throws IOException {
-        final Path workflowPath = new Path(oozieJobDir, WORKFLOW_FILE_NAME);
-        createFile(workflowPath, in);
+    public Path createOozieWorkflow(Path oozieJobDir, FileContent content) throws IOException {
+        final Path workflowPath = resolveOozieWorkflow(oozieJobDir);
+        writeFile(workflowPath, content);
         return workflowPath;
     }
 
+    @Override
+    public Path resolveOozieCoordinator(Path oozieJobDir) {
+        return new Path(oozieJobDir, COORDINATOR_FILE_NAME);
+    }
+
+    @Override
+    public Path resolveOozieWorkflow(Path oozieJobDir) {
+        return new Path(oozieJobDir, WORKFLOW_FILE_NAME);
+    }
+
     @Override
     public Path resolveSqoopTargetDir(String jobId, String targetDir) {
 
@@ -85,6 +135,11 @@ public class HdfsOrgSpecificSpace implements OrgSpecificSpace {
         }
     }
 
+    @Override
+    public Path resolveOozieTemplateDir(String contentHash) {
+        return resolveDir(OOZIE_TEMPLATES_DIR, contentHash);
+    }
+
     @Override
     public String getNameNode() {
         return fileSystem.getUri().toString();
@@ -98,8 +153,22 @@ public class HdfsOrgSpecificSpace implements OrgSpecificSpace {
 
     @Override
     public void createFile(Path path, InputStream in) {
-        try {
-            StreamUtils.copy(in, fileSystem.create(path));
+        writeFile(path, out -> StreamUtils.copy(in, out));
+    }
+
+    @Override
+    public void createFile(Path path, InputStream in, FsPermission permission) {
+        writeFile(path, out -> StreamUtils.copy(in, out), permission);
+    }
+
+    private void writeFile(Path path, FileContent content) {
+        writeFile(path, content, null);
+    }
+
+    private void writeFile(Path path, FileContent content, FsPermission permission) {
+        try (OutputStream out = create(path, permission)) {
+            content.writeTo(out);
+            knownDirectories.add(path.getParent());
             LOGGER.info("Created file: " + path);
         } catch (AccessControlException ex) {
             throw new AccessDeniedException("Permission denied for given organization", ex);
@@ -108,6 +177,15 @@ public class HdfsOrgSpecificSpace implements OrgSpecificSpace {
         }
     }
 
+    private OutputStream create(Path path, FsPermission permission) throws IOException {
+        if (permission == null) {
+            return fileSystem.create(path);
+        }
+        return fileSystem.create(path, permission, true,
+                fileSystem.getConf().getInt(IO_FILE_BUFFER_SIZE_KEY, IO_FILE_BUFFER_SIZE_DEFAULT),
+                fileSystem.getDefaultReplication(path), fileSystem.getDefaultBlockSize(path), null);
+    }
+
     @Override
     public boolean fileExists(Path path) throws IOException {
         return fileSystem.exists(path);
@@ -115,7 +193,42 @@ public class HdfsOrgSpecificSpace implements OrgSpecificSpace {
 
     @Override
     public boolean createDirectory(Path ooziePath) throws IOException {
-        return fileSystem.mkdirs(ooziePath);
+        if (knownDirectories.contains(ooziePath)) {
+            return true;
+        }
+        final boolean created = fileSystem.mkdirs(ooziePath);
+        if (created) {
+            knownDirectories.add(ooziePath);
+        }
+        return created;
+    }
+
+    @Override
+    public boolean rename(Path source, Path target) throws IOException {
+        try {
+            fileContext().rename(source, target, Options.Rename.NONE);
+        } catch (FileAlreadyExistsException ex) {
+            return false;
+        }
+        knownDirectories.add(target);
+        return true;
+    }
+
+    // unlike FileSystem, FileContext renames without moving into an existing target, it acts as the file system's user
+    private FileContext fileContext() throws IOException {
+        try {
+            return UserGroupInformation.getBestUGI(null, tokenProvider.getUserId()).doAs(
+                    (PrivilegedExceptionAction<FileContext>) () -> FileContext.getFileContext(fileSystem.getUri(), fileSystem.getConf()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while connecting to " + fileSystem.getUri());
+        }
+    }
+
+    @Override
+    public boolean delete(Path path) throws IOException {
+        knownDirectories.remove(path);
+        return fileSystem.delete(path, true);
     }
 }
 
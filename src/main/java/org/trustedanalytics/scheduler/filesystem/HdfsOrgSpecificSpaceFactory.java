@@ -15,31 +15,145 @@
  */
 package org.trustedanalytics.scheduler.filesystem;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Data;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.trustedanalytics.scheduler.security.TokenProvider;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps one FileSystem handle per user and organization, so consecutive submits reuse a connected
+ * client. Every space handed out holds a lease on its handle. Handles which stay idle for too long or are
+ * evicted from the full cache are closed once the last lease is released, in-flight submissions keep working.
+ */
 @Component
 public class HdfsOrgSpecificSpaceFactory implements OrgSpecificSpaceFactory {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(HdfsOrgSpecificSpaceFactory.class);
+
     private final FileSystemFactory fileSystemFactory;
     private final TokenProvider tokenProvider;
+    private final Cache<FileSystemKey, LeasedFileSystem> fileSystems;
+    private final Set<Path> knownDirectories = Collections.newSetFromMap(
+            CacheBuilder.newBuilder().maximumSize(10000).<Path, Boolean>build().asMap());
 
     @Autowired
-    public HdfsOrgSpecificSpaceFactory(FileSystemFactory fileSystemFactory, TokenProvider tokenProvider) {
+    public HdfsOrgSpecificSpaceFactory(FileSystemFactory fileSystemFactory, TokenProvider tokenProvider,
+                                       @Value("${hdfs.filesystem-cache.max-size:100}") long maxSize,
+                                       @Value("${hdfs.filesystem-cache.idle-timeout-seconds:600}") long idleTimeoutSeconds) {
         this.fileSystemFactory = fileSystemFactory;
         this.tokenProvider = tokenProvider;
+        this.fileSystems = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleTimeoutSeconds, TimeUnit.SECONDS)
+                .removalListener((RemovalListener<FileSystemKey, LeasedFileSystem>) notification -> notification.getValue().evict())
+                .build();
     }
 
     @Override
     public OrgSpecificSpace getOrgSpecificSpace(String orgID) throws IOException {
 
         Objects.requireNonNull(orgID, "Organization identifier is required");
-        return new HdfsOrgSpecificSpace(fileSystemFactory.getFileSystem(orgID), orgID, tokenProvider);
+        final LeasedFileSystem leased = acquire(orgID);
+        return new HdfsOrgSpecificSpace(leased.fileSystem, orgID, tokenProvider, knownDirectories, leased::release);
+    }
+
+    public long cachedFileSystems() {
+        fileSystems.cleanUp();
+        return fileSystems.size();
     }
-}
 
+    @PreDestroy
+    public void closeAll() {
+        fileSystems.invalidateAll();
+    }
+
+    private LeasedFileSystem acquire(String orgID) throws IOException {
+        final FileSystemKey key = new FileSystemKey(tokenProvider.getUserId(), orgID);
+        while (true) {
+            LeasedFileSystem leased = getFileSystem(key, orgID);
+            if (leased.lease()) {
+                return leased;
+            }
+            // evicted between lookup and lease, the cache already creates a new handle for the key
+        }
+    }
+
+    private LeasedFileSystem getFileSystem(FileSystemKey key, String orgID) throws IOException {
+        try {
+            return fileSystems.get(key, () -> new LeasedFileSystem(fileSystemFactory.getFileSystem(orgID)));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Error while creating FileSystem object", e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
+    private static void close(FileSystem fileSystem) {
+        try {
+            fileSystem.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close FileSystem " + fileSystem.getUri(), e);
+        }
+    }
+
+    private static final class LeasedFileSystem {
+        private final FileSystem fileSystem;
+        private int leases;
+        private boolean evicted;
+
+        private LeasedFileSystem(FileSystem fileSystem) {
+            this.fileSystem = fileSystem;
+        }
+
+        private synchronized boolean lease() {
+            if (evicted) {
+                return false;
+            }
+            leases++;
+            return true;
+        }
+
+        private synchronized void release() {
+            leases--;
+            if (evicted && leases == 0) {
+                close(fileSystem);
+            }
+        }
+
+        private synchronized void evict() {
+            evicted = true;
+            if (leases == 0) {
+                close(fileSystem);
+            }
+        }
+    }
+
+    @Data
+    private static final class FileSystemKey {
+        private final String userId;
+        private final String org;
+    }
+}
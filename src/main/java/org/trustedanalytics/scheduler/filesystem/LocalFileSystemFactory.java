@@ -29,6 +29,6 @@ public class LocalFileSystemFactory implements FileSystemFactory {
     @Override
     public FileSystem getFileSystem(String org) throws IOException {
         Configuration configuration = new Configuration();
-        return FileSystem.get(configuration);
+        return FileSystem.newInstance(configuration);
     }
 }
@@ -16,24 +16,55 @@
 package org.trustedanalytics.scheduler.filesystem;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 
-public interface OrgSpecificSpace {
-    Path createOozieCoordinator(Path coordinatorDirPath, InputStream in) throws IOException;
+/**
+ * Closing the space tells its factory that the underlying file system is no longer used by the caller.
+ */
+public interface OrgSpecificSpace extends Closeable {
+    Path createOozieCoordinator(Path coordinatorDirPath, FileContent content) throws IOException;
+
+    Path createOozieWorkflow(Path workflowDirPath, FileContent content) throws IOException;
 
-    Path createOozieWorkflow(Path workflowDirPath, InputStream in) throws IOException;
+    Path resolveOozieCoordinator(Path coordinatorDirPath);
+
+    Path resolveOozieWorkflow(Path workflowDirPath);
 
     Path resolveSqoopTargetDir(String jobId, String targetDir);
 
     Path resolveOozieDir(String jobId, String appPath);
 
+    Path resolveOozieTemplateDir(String contentHash);
+
     String getNameNode();
 
     void createFile(Path path, InputStream in);
 
+    /**
+     * Creates the file with the given permission from the start, so it is never readable by others in between.
+     */
+    void createFile(Path path, InputStream in, FsPermission permission);
+
     boolean fileExists(Path path) throws IOException;
 
     boolean createDirectory(Path ooziePath) throws IOException;
+
+    /**
+     * Atomically moves a directory, the target is never merged with or nested into an existing directory.
+     * @return false when the target already exists, the source is left in place then
+     */
+    boolean rename(Path source, Path target) throws IOException;
+
+    /**
+     * Removes a file or a directory with everything under it.
+     */
+    boolean delete(Path path) throws IOException;
+
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.filesystem;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs independent file writes of a single submission concurrently and waits until all of them finish.
+ */
+@Component
+public class ParallelFileWriter {
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public ParallelFileWriter(@Value("${hdfs.write-threads:4}") int threads) {
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @FunctionalInterface
+    public interface FileWrite {
+        void write() throws IOException;
+    }
+
+    public void writeAll(FileWrite... writes) throws IOException {
+        final CompletableFuture<?>[] futures = Arrays.stream(writes)
+                .map(write -> CompletableFuture.runAsync(() -> {
+                    try {
+                        write.write();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to write job files", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
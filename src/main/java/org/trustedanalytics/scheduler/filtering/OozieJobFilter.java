@@ -20,21 +20,21 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
 import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformationExtended;
-import org.trustedanalytics.scheduler.persistence.repository.OozieJobRepository;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Component
 public class OozieJobFilter {
 
-    private final OozieJobRepository oozieJobRepository;
+    private final OrgJobIds orgJobIds;
 
     @Autowired
-    public OozieJobFilter(OozieJobRepository oozieJobRepository) {
-        this.oozieJobRepository = oozieJobRepository;
+    public OozieJobFilter(OrgJobIds orgJobIds) {
+        this.orgJobIds = orgJobIds;
     }
 
     public List<OozieCoordinatedJobInformation> filterCoordinatorByOrg(List<OozieCoordinatedJobInformation> coordinatedJobs, String org) {
@@ -42,17 +42,20 @@ public class OozieJobFilter {
     }
 
     public List<OozieWorkflowJobInformationExtended> filterWorkflowByOrg(List<OozieWorkflowJobInformationExtended> workflowJobs, String org) {
-        return byOrg(workflowJobs, org, job -> StringUtils.isEmpty(job.getCoordinatorId()) ? job.getId() : job.getCoordinatorId());
+        return workflowJobs.stream()
+            .filter(workflowsOf(org))
+            .collect(Collectors.toList());
+    }
+
+    public Predicate<OozieWorkflowJobInformationExtended> workflowsOf(String org) {
+        final Set<String> jobIds = orgJobIds.get(org);
+        return job -> jobIds.contains(StringUtils.isEmpty(job.getCoordinatorId()) ? job.getId() : job.getCoordinatorId());
     }
 
     private <T> List<T> byOrg(List<T> jobs, String org, Function<T, String> func) {
+        final Set<String> jobIds = orgJobIds.get(org);
         return jobs.stream()
-            .filter(job -> oozieJobRepository
-                .findByOrgId(org.toString())
-                .stream()
-                .map(entity -> entity.getJobId())
-                .collect(Collectors.toSet())
-                .contains(func.apply(job)))
+            .filter(job -> jobIds.contains(func.apply(job)))
             .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.filtering;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
+import org.trustedanalytics.scheduler.persistence.repository.OozieJobRepository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per organization cache of ids of jobs submitted through this service. Entries are loaded with a single
+ * repository query, kept up to date on {@link #save(OozieJobEntity)} and reloaded after the configured TTL,
+ * so jobs registered by other instances show up eventually.
+ */
+@Component
+public class OrgJobIds {
+
+    private final OozieJobRepository oozieJobRepository;
+    private final LoadingCache<String, Set<String>> jobIdsByOrg;
+
+    @Autowired
+    public OrgJobIds(OozieJobRepository oozieJobRepository,
+                     @Value("${oozie.org-job-ids.ttl-seconds:60}") long ttlSeconds) {
+        this.oozieJobRepository = oozieJobRepository;
+        this.jobIdsByOrg = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build(new CacheLoader<String, Set<String>>() {
+                    @Override
+                    public Set<String> load(String org) {
+                        return loadJobIds(org);
+                    }
+                });
+    }
+
+    public Set<String> get(String org) {
+        return Collections.unmodifiableSet(jobIdsByOrg.getUnchecked(org));
+    }
+
+    public OozieJobEntity save(OozieJobEntity entity) {
+        OozieJobEntity saved = oozieJobRepository.save(entity);
+        Set<String> cached = jobIdsByOrg.getIfPresent(saved.getOrgId());
+        if (cached != null) {
+            cached.add(saved.getJobId());
+        }
+        return saved;
+    }
+
+    public void saveAll(Collection<OozieJobEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        oozieJobRepository.save(entities).forEach(saved -> {
+            Set<String> cached = jobIdsByOrg.getIfPresent(saved.getOrgId());
+            if (cached != null) {
+                cached.add(saved.getJobId());
+            }
+        });
+    }
+
+    private Set<String> loadJobIds(String org) {
+        Set<String> jobIds = ConcurrentHashMap.newKeySet();
+        oozieJobRepository.findByOrgId(org).forEach(entity -> jobIds.add(entity.getJobId()));
+        return jobIds;
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.index;
+
+import com.google.common.collect.ImmutableSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.client.OozieDates;
+import org.trustedanalytics.scheduler.client.OozieJobsFilter;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformationExtended;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of Oozie workflow and coordinator jobs, kept up to date by {@link OozieJobIndexPoller}.
+ * Workflows are held newest first, the same order Oozie uses, so a time window is a head of the map.
+ */
+@Component
+public class OozieJobIndex implements PublicMetrics {
+
+    private static final Set<String> ACTIVE_STATUSES = ImmutableSet.of("PREP", "RUNNING", "SUSPENDED");
+    private static final Set<String> COORDINATOR_ACTIVE_STATUSES = ImmutableSet.of("PREP", "PREPSUSPENDED", "PREPPAUSED",
+            "RUNNING", "RUNNINGWITHERROR", "SUSPENDED", "SUSPENDEDWITHERROR", "PAUSED", "PAUSEDWITHERROR");
+
+    private final ConcurrentMap<String, OozieWorkflowJobInformationExtended> workflowsById = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<IndexKey, OozieWorkflowJobInformationExtended> workflowsByCreatedTime =
+            new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, OozieCoordinatedJobInformation> coordinatorsById = new ConcurrentHashMap<>();
+
+    private final int retentionDays;
+    private final long maxStalenessMillis;
+
+    private volatile boolean ready;
+    private volatile long lastPollTimestamp;
+    private volatile long lastPollDuration;
+
+    public OozieJobIndex(@Value("${oozie.index.retention-days:7}") int retentionDays,
+                         @Value("${oozie.index.max-staleness-ms:120000}") long maxStalenessMillis) {
+        this.retentionDays = retentionDays;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    public static Set<String> activeStatuses() {
+        return ACTIVE_STATUSES;
+    }
+
+    public static Set<String> coordinatorActiveStatuses() {
+        return COORDINATOR_ACTIVE_STATUSES;
+    }
+
+    /**
+     * Queries are answered from the index only while the last successful poll is recent enough,
+     * when polling keeps failing callers go back to Oozie.
+     */
+    public boolean covers(String unit, int amount) {
+        return ready
+                && System.currentTimeMillis() - lastPollTimestamp <= maxStalenessMillis
+                && !OozieDates.searchedDate(unit, amount).isBefore(retentionCutoff());
+    }
+
+    public LocalDateTime retentionCutoff() {
+        return OozieDates.now().minusDays(retentionDays);
+    }
+
+    public List<OozieWorkflowJobInformationExtended> getWorkflowJobs(String unit, int amount, OozieJobsFilter filter) {
+        final long searchedTime = toMillis(OozieDates.searchedDate(unit, amount));
+        return workflowsByCreatedTime.headMap(new IndexKey(searchedTime, ""))
+                .values()
+                .stream()
+                .filter(filter::matches)
+                .collect(Collectors.toList());
+    }
+
+    public List<OozieCoordinatedJobInformation> getCoordinatedJobs(String unit, int amount) {
+        final long searchedTime = toMillis(OozieDates.searchedDate(unit, amount));
+        return coordinatorsById.values()
+                .stream()
+                .filter(job -> job.lastActionAfter(searchedTime))
+                .sorted(Comparator.comparing(OozieCoordinatedJobInformation::getCoordJobId).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stores given workflows, replacing only those whose lastModTime differs from the indexed one.
+     *
+     * @return number of inserted or replaced workflows
+     */
+    public int updateWorkflows(Collection<OozieWorkflowJobInformationExtended> workflows) {
+        int changed = 0;
+        for (OozieWorkflowJobInformationExtended workflow : workflows) {
+            OozieWorkflowJobInformationExtended indexed = workflowsById.get(workflow.getId());
+            if (indexed != null && Objects.equals(indexed.getLastModTime(), workflow.getLastModTime())) {
+                continue;
+            }
+            workflowsById.put(workflow.getId(), workflow);
+            workflowsByCreatedTime.put(keyOf(workflow), workflow);
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Replaces all indexed coordinators with the given ones.
+     */
+    public void replaceCoordinators(Collection<OozieCoordinatedJobInformation> coordinators) {
+        Set<String> present = coordinators.stream()
+                .map(OozieCoordinatedJobInformation::getCoordJobId)
+                .collect(Collectors.toSet());
+        coordinators.forEach(coordinator -> coordinatorsById.put(coordinator.getCoordJobId(), coordinator));
+        coordinatorsById.keySet().retainAll(present);
+    }
+
+    /**
+     * Stores given coordinators, replacing only those which differ from the indexed ones.
+     *
+     * @return number of inserted or replaced coordinators
+     */
+    public int updateCoordinators(Collection<OozieCoordinatedJobInformation> coordinators) {
+        int changed = 0;
+        for (OozieCoordinatedJobInformation coordinator : coordinators) {
+            if (!coordinator.equals(coordinatorsById.put(coordinator.getCoordJobId(), coordinator))) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    public Set<String> activeCoordinatorIds() {
+        return coordinatorsById.values()
+                .stream()
+                .filter(coordinator -> COORDINATOR_ACTIVE_STATUSES.contains(coordinator.getStatus()))
+                .map(OozieCoordinatedJobInformation::getCoordJobId)
+                .collect(Collectors.toSet());
+    }
+
+    public Set<String> activeWorkflowIds() {
+        return workflowsById.values()
+                .stream()
+                .filter(workflow -> ACTIVE_STATUSES.contains(workflow.getStatus()))
+                .map(OozieWorkflowJobInformationExtended::getId)
+                .collect(Collectors.toSet());
+    }
+
+    public void evictCreatedBefore(LocalDateTime time) {
+        ConcurrentNavigableMap<IndexKey, OozieWorkflowJobInformationExtended> expired =
+                workflowsByCreatedTime.tailMap(new IndexKey(toMillis(time), ""), true);
+        expired.values().forEach(workflow -> workflowsById.remove(workflow.getId()));
+        expired.clear();
+    }
+
+    public void markPolled(long timestamp, long duration) {
+        this.lastPollTimestamp = timestamp;
+        this.lastPollDuration = duration;
+        this.ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long staleness = ready ? System.currentTimeMillis() - lastPollTimestamp : -1;
+        return Arrays.asList(
+                new Metric<>("gauge.oozie.index.workflows", workflowsById.size()),
+                new Metric<>("gauge.oozie.index.coordinators", coordinatorsById.size()),
+                new Metric<>("gauge.oozie.index.staleness", staleness),
+                new Metric<>("gauge.oozie.index.poll.duration", lastPollDuration));
+    }
+
+    private static IndexKey keyOf(OozieWorkflowJobInformationExtended workflow) {
+        return new IndexKey(OozieDates.parseMillis(workflow.getCreatedTime()), workflow.getId());
+    }
+
+    private static long toMillis(LocalDateTime utcTime) {
+        return OozieDates.toMillis(utcTime);
+    }
+
+    /**
+     * Orders workflows by creation time, newest first, with job id breaking ties.
+     */
+    private static final class IndexKey implements Comparable<IndexKey> {
+        private final long createdTime;
+        private final String id;
+
+        private IndexKey(long createdTime, String id) {
+            this.createdTime = createdTime;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int byTime = Long.compare(other.createdTime, createdTime);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IndexKey && compareTo((IndexKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(createdTime, id);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.client.OozieDates;
+import org.trustedanalytics.scheduler.client.OozieJobsFilter;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformationExtended;
+import org.trustedanalytics.scheduler.filesystem.HdfsConfigProvider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically refreshes {@link OozieJobIndex}. After the initial load only workflows created since the previous
+ * poll and jobs that were still active are fetched, terminal jobs are never downloaded twice. Coordinators are
+ * created active, so listing the active ones picks up new coordinators as well.
+ *
+ * Polling runs without a user request, so it requires Oozie to be reachable with the technical account
+ * (Kerberos disabled).
+ */
+@Component
+@ConditionalOnProperty(prefix = "oozie.index", name = "enabled", havingValue = "true")
+public class OozieJobIndexPoller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OozieJobIndexPoller.class);
+    private static final long CLOCK_SKEW_MINUTES = 2;
+
+    private final OozieClient oozieClient;
+    private final OozieJobIndex oozieJobIndex;
+    private final boolean kerberosEnabled;
+
+    private LocalDateTime lastPollTime;
+
+    @Autowired
+    public OozieJobIndexPoller(OozieClient oozieClient, OozieJobIndex oozieJobIndex, HdfsConfigProvider hdfsConfigProvider) {
+        this.oozieClient = oozieClient;
+        this.oozieJobIndex = oozieJobIndex;
+        this.kerberosEnabled = hdfsConfigProvider.isKerberosEnabled();
+        if (kerberosEnabled) {
+            LOGGER.warn("Oozie job index requires technical Oozie account, polling disabled in kerberized environment");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${oozie.index.poll-interval-ms:30000}")
+    public void poll() {
+        if (kerberosEnabled) {
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        final LocalDateTime pollTime = OozieDates.now();
+        try {
+            int changed = oozieJobIndex.updateWorkflows(lastPollTime == null ? initialWorkflows() : changedWorkflows());
+            oozieJobIndex.evictCreatedBefore(oozieJobIndex.retentionCutoff());
+            if (lastPollTime == null) {
+                oozieJobIndex.replaceCoordinators(oozieClient.getCoordinatedJobs(job -> true));
+            } else {
+                changed += oozieJobIndex.updateCoordinators(changedCoordinators());
+            }
+
+            lastPollTime = pollTime;
+            oozieJobIndex.markPolled(start, System.currentTimeMillis() - start);
+            LOGGER.debug("Oozie job index refreshed, {} jobs changed", changed);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to refresh Oozie job index", e);
+        }
+    }
+
+    private List<OozieWorkflowJobInformationExtended> initialWorkflows() {
+        return oozieClient.getWorkflowJobsCreatedAfter(oozieJobIndex.retentionCutoff(), OozieJobsFilter.none());
+    }
+
+    private List<OozieWorkflowJobInformationExtended> changedWorkflows() {
+        List<OozieWorkflowJobInformationExtended> changed = new ArrayList<>(
+                oozieClient.getWorkflowJobsCreatedAfter(lastPollTime.minusMinutes(CLOCK_SKEW_MINUTES), OozieJobsFilter.none()));
+        changed.addAll(oozieClient.getWorkflowJobsCreatedAfter(oozieJobIndex.retentionCutoff(),
+                OozieJobsFilter.builder().statuses(OozieJobIndex.activeStatuses()).build()));
+
+        // jobs which were active during the previous poll but are not anymore have reached a terminal state
+        Set<String> fetched = changed.stream().map(OozieWorkflowJobInformationExtended::getId).collect(Collectors.toSet());
+        oozieJobIndex.activeWorkflowIds()
+                .stream()
+                .filter(id -> !fetched.contains(id))
+                .forEach(id -> changed.add(oozieClient.getWorkflowJobDetails(id)));
+        return changed;
+    }
+
+    private List<OozieCoordinatedJobInformation> changedCoordinators() {
+        List<OozieCoordinatedJobInformation> changed = new ArrayList<>(oozieClient.getCoordinatedJobs(
+                OozieJobsFilter.builder().statuses(OozieJobIndex.coordinatorActiveStatuses()).build(), job -> true));
+
+        // coordinators which were active during the previous poll but are not anymore have reached a terminal state
+        Set<String> fetched = changed.stream().map(OozieCoordinatedJobInformation::getCoordJobId).collect(Collectors.toSet());
+        oozieJobIndex.activeCoordinatorIds()
+                .stream()
+                .filter(id -> !fetched.contains(id))
+                .forEach(id -> {
+                    OozieCoordinatedJobInformation coordinator = oozieClient.getCoordinatedJobDetails(id);
+                    // listings carry no actions, keep the indexed entry in the same shape
+                    coordinator.setActions(null);
+                    changed.add(coordinator);
+                });
+        return changed;
+    }
+}
@@ -15,58 +15,105 @@
  */
 package org.trustedanalytics.scheduler.oozie;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.trustedanalytics.scheduler.client.OozieClient;
 import org.trustedanalytics.scheduler.client.OozieJobId;
 import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpace;
 import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpaceFactory;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter;
+import org.trustedanalytics.scheduler.oozie.jobs.OozieJob;
 import org.trustedanalytics.scheduler.oozie.jobs.OozieScheduledJob;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopCommand;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJob;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopJobMapper;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJob;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopScheduledImportJob;
 import org.trustedanalytics.scheduler.oozie.serialization.CoordinatorInstance;
+import org.trustedanalytics.scheduler.oozie.serialization.DecisionNode.WorkflowDecisionNodeBuilder;
+import org.trustedanalytics.scheduler.oozie.serialization.ForkNode.WorkflowForkNodeBuilder;
 import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
 import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance;
+import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance.WorkflowInstanceBuilder;
 import org.trustedanalytics.scheduler.utils.JobIdSupplier;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class OozieService {
 
     private static final String ERR_MSG = "Error message[${wf:errorMessage(wf:lastErrorNode())}]";
     public static final String SQOOP_DRIVER_PROPERTIES_FILE = "driver.properties";
+
+    // job configuration properties filling in the shared templates, they have to be valid EL variable names
+    static final String JOB_NAME = "jobName";
+    static final String SQOOP_COMMAND = "sqoopCommand";
+    static final String SQOOP_CREATE_COMMAND = "sqoopCreateCommand";
+    static final String SQOOP_EXEC_COMMAND = "sqoopExecCommand";
+    static final String FLAG_PATH = "flagPath";
+    static final String WORKFLOW_APP_PATH = "workflowAppPath";
+    static final String FREQUENCY_AMOUNT = "frequencyAmount";
+    static final String COORDINATOR_START = "coordinatorStart";
+    static final String COORDINATOR_END = "coordinatorEnd";
+    static final String COORDINATOR_TIMEZONE = "coordinatorTimezone";
+    private static final String TEMPLATE_NODE_PREFIX = "sqoop";
+    // only the submitting user, whom oozie runs the import as, may read the database password
+    private static final FsPermission PASSWORD_FILE_PERMISSION = new FsPermission((short) 0600);
+
     private final OrgSpecificSpaceFactory orgSpecificSpaceFactory;
     private final OozieClient oozieClient;
     private final JobIdSupplier idSupplier;
     private SqoopJobMapper jobMapper;
     private JobContext jobContext;
+    private final ParallelFileWriter fileWriter;
+    private final OozieTemplateStore templateStore;
+    private final int maxImportParallelism;
 
     @Autowired
     public OozieService(OrgSpecificSpaceFactory orgSpecificSpaceFactory, OozieClient oozieClient, JobIdSupplier jobIdSupplier,
-                          SqoopJobMapper sqoopJobMapper, JobContext jobContext) {
+                          SqoopJobMapper sqoopJobMapper, JobContext jobContext, ParallelFileWriter fileWriter,
+                          OozieTemplateStore templateStore,
+                          @Value("${oozie.multi-table-import.max-parallelism:8}") int maxImportParallelism) {
         this.orgSpecificSpaceFactory = orgSpecificSpaceFactory;
         this.oozieClient = oozieClient;
         this.idSupplier = jobIdSupplier;
         this.jobMapper = sqoopJobMapper;
         this.jobContext = jobContext;
+        this.fileWriter = fileWriter;
+        this.templateStore = templateStore;
+        this.maxImportParallelism = maxImportParallelism;
     }
 
     public OozieJobId sqoopImportJob(SqoopImportJob job, String orgId) throws IOException {
+        try (OrgSpecificSpace space = orgSpecificSpaceFactory.getOrgSpecificSpace(orgId)) {
+            return sqoopImportJob(job, orgId, space);
+        }
+    }
 
+    public OozieJobId sqoopImportJob(SqoopImportJob job, String orgId, OrgSpecificSpace space) throws IOException {
 
         jobMapper.adjust(job);
-        jobContext.resolveQueueName(orgId);
-
-        final OrgSpecificSpace space = orgSpecificSpaceFactory.getOrgSpecificSpace(orgId);
+        final JobContext orgJobContext = jobContext.forOrg(orgId);
 
         String jobId = idSupplier.get(job.getName(), space);
+        if (usesTemplate(job, job.getSqoopImport())) {
+            return sqoopImportJobFromTemplate(job, orgId, space, orgJobContext, jobId);
+        }
+
         final Path ooziePath = space.resolveOozieDir(jobId, job.getAppPath());
         space.createDirectory(ooziePath);
 
@@ -74,20 +121,128 @@ public class OozieService {
 
         job.getSqoopImport().setTargetDir(targetPath.toUri().toString());
 
-        final String sqoopWf = space.createOozieWorkflow(ooziePath, sqoopWorkflow(job, jobContext)).getParent().toString();
+        final String name = job.getName();
+        final Path passwordPath = passwordFile(ooziePath, job.getSqoopImport());
+        final WorkflowInstance workflow = sqoopWorkflow(name + "-app", name, sqoopImportCommand(job, orgJobContext, passwordPath),
+                actionFiles(job.getSqoopImport()), orgJobContext);
+        fileWriter.writeAll(
+                () -> space.createOozieWorkflow(ooziePath, workflow::writeTo),
+                () -> space.createFile(new Path(ooziePath, SQOOP_DRIVER_PROPERTIES_FILE), new ByteArrayInputStream(driverProperties(orgId))),
+                () -> createBoundaryQueryOptions(space, ooziePath, job.getSqoopImport()),
+                () -> createPasswordFile(space, passwordPath, job.getSqoopImport()));
+
+        final String sqoopWf = space.resolveOozieWorkflow(ooziePath).getParent().toString();
+        return oozieClient.submitWorkflowJob(sqoopWf, job.getSqoopImport().getTargetDir());
+    }
 
-        space.createFile(new Path(ooziePath, SQOOP_DRIVER_PROPERTIES_FILE), driverProperties(orgId) );
+    private OozieJobId sqoopImportJobFromTemplate(SqoopImportJob job, String orgId, OrgSpecificSpace space,
+                                                  JobContext orgJobContext, String jobId) throws IOException {
 
-        return oozieClient.submitWorkflowJob(sqoopWf, job.getSqoopImport().getTargetDir());
+        final Path targetPath = space.resolveSqoopTargetDir(jobId, job.getSqoopImport().getTargetDir());
+        job.getSqoopImport().setTargetDir(targetPath.toUri().toString());
+
+        final WorkflowInstance workflow = sqoopWorkflow(property(JOB_NAME) + "-app", TEMPLATE_NODE_PREFIX,
+                property(SQOOP_COMMAND), actionFiles(job.getSqoopImport()), orgJobContext);
+        final Path appDir = templateStore.store(space, workflow, null,
+                Collections.singletonMap(SQOOP_DRIVER_PROPERTIES_FILE, driverProperties(orgId)));
+
+        final Path passwordPath = passwordFile(space.resolveOozieDir(jobId, job.getAppPath()), job.getSqoopImport());
+        createPasswordFile(space, passwordPath, job.getSqoopImport());
+
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put(JOB_NAME, job.getName());
+        parameters.put(SQOOP_COMMAND, sqoopImportCommand(job, orgJobContext, passwordPath));
+
+        final String sqoopWf = space.resolveOozieWorkflow(appDir).getParent().toString();
+        return oozieClient.submitWorkflowJob(sqoopWf, job.getSqoopImport().getTargetDir(), parameters);
     }
 
-    public OozieJobId sqoopScheduledImportJob(SqoopScheduledImportJob job, String orgId) throws IOException {
+    public OozieJobId sqoopMultiTableImportJob(SqoopMultiTableImportJob job, String orgId) throws IOException {
+        try (OrgSpecificSpace space = orgSpecificSpaceFactory.getOrgSpecificSpace(orgId)) {
+            return sqoopMultiTableImportJob(job, orgId, space);
+        }
+    }
+
+    /**
+     * Imports all tables within one workflow, so the launcher overhead is paid once per table set. Tables are
+     * spread round-robin over parallel lanes forked from the start node, each lane imports its tables one by one.
+     */
+    public OozieJobId sqoopMultiTableImportJob(SqoopMultiTableImportJob job, String orgId, OrgSpecificSpace space) throws IOException {
 
         jobMapper.adjust(job);
+        final JobContext orgJobContext = jobContext.forOrg(orgId);
 
-        final OrgSpecificSpace space = orgSpecificSpaceFactory.getOrgSpecificSpace(orgId);
+        String jobId = idSupplier.get(job.getName(), space);
+        final Path targetPath = space.resolveSqoopTargetDir(jobId, job.getSqoopImport().getTargetDir());
+        final Path ooziePath = space.resolveOozieDir(jobId, job.getAppPath());
+        final Path passwordPath = passwordFile(ooziePath, job.getSqoopImport());
+
+        final List<String> commands = new ArrayList<>();
+        for (String table : job.getTables()) {
+            SqoopImport tableImport = new SqoopImport();
+            BeanUtils.copyProperties(job.getSqoopImport(), tableImport);
+            tableImport.setTable(table);
+            tableImport.setTargetDir(new Path(targetPath, table).toUri().toString());
+            commands.add(new SqoopCommand("import", orgJobContext.getSqoopMetastore())
+                    .sqoopImport(tableImport, pathString(passwordPath)).command());
+        }
+        final int lanes = importLanes(job);
+
+        if (usesTemplate(job, job.getSqoopImport())) {
+            final List<String> commandProperties = new ArrayList<>();
+            for (int i = 0; i < commands.size(); i++) {
+                commandProperties.add(property(SQOOP_COMMAND + i));
+            }
+            final WorkflowInstance workflow = sqoopParallelWorkflow(property(JOB_NAME) + "-app", TEMPLATE_NODE_PREFIX,
+                    commandProperties, lanes, orgJobContext);
+            final Path appDir = templateStore.store(space, workflow, null,
+                    Collections.singletonMap(SQOOP_DRIVER_PROPERTIES_FILE, driverProperties(orgId)));
+            createPasswordFile(space, passwordPath, job.getSqoopImport());
+
+            final Map<String, String> parameters = new LinkedHashMap<>();
+            parameters.put(JOB_NAME, job.getName());
+            for (int i = 0; i < commands.size(); i++) {
+                parameters.put(SQOOP_COMMAND + i, commands.get(i));
+            }
+
+            final String sqoopWf = space.resolveOozieWorkflow(appDir).getParent().toString();
+            return oozieClient.submitWorkflowJob(sqoopWf, targetPath.toUri().toString(), parameters);
+        }
+
+        space.createDirectory(ooziePath);
+
+        final String name = job.getName();
+        final WorkflowInstance workflow = sqoopParallelWorkflow(name + "-app", name, commands, lanes, orgJobContext);
+        fileWriter.writeAll(
+                () -> space.createOozieWorkflow(ooziePath, workflow::writeTo),
+                () -> space.createFile(new Path(ooziePath, SQOOP_DRIVER_PROPERTIES_FILE), new ByteArrayInputStream(driverProperties(orgId))),
+                () -> createPasswordFile(space, passwordPath, job.getSqoopImport()));
+
+        final String sqoopWf = space.resolveOozieWorkflow(ooziePath).getParent().toString();
+        return oozieClient.submitWorkflowJob(sqoopWf, targetPath.toUri().toString());
+    }
+
+    private int importLanes(SqoopMultiTableImportJob job) {
+        int requested = job.getParallelism() == null ? maxImportParallelism : job.getParallelism();
+        return Math.max(1, Math.min(Math.min(requested, maxImportParallelism), job.getTables().size()));
+    }
+
+    public OozieJobId sqoopScheduledImportJob(SqoopScheduledImportJob job, String orgId) throws IOException {
+        try (OrgSpecificSpace space = orgSpecificSpaceFactory.getOrgSpecificSpace(orgId)) {
+            return sqoopScheduledImportJob(job, orgId, space);
+        }
+    }
+
+    public OozieJobId sqoopScheduledImportJob(SqoopScheduledImportJob job, String orgId, OrgSpecificSpace space) throws IOException {
+
+        jobMapper.adjust(job);
 
         String jobId = idSupplier.get(job.getName(), space);
+        final JobContext orgJobContext = jobContext.forOrg(orgId);
+        if (usesTemplate(job, job.getSqoopImport())) {
+            return sqoopScheduledImportJobFromTemplate(job, orgId, space, orgJobContext, jobId);
+        }
+
         final Path ooziePath = space.resolveOozieDir(jobId, job.getAppPath());
         space.createDirectory(ooziePath);
 
@@ -95,100 +250,233 @@ public class OozieService {
 
         job.getSqoopImport().setTargetDir("${targetDir}");
 
-        jobContext.resolveQueueName(orgId);
+        final String sqoopWf = space.resolveOozieWorkflow(ooziePath).getParent().toString();
+        final String sqoopCr = space.resolveOozieCoordinator(ooziePath).getParent().toString();
+
+        final String name = job.getName();
+        final String flagPath = new Path(ooziePath, "sqoop-create").toString();
+        final Path passwordPath = passwordFile(ooziePath, job.getSqoopImport());
+        final WorkflowInstance workflow = sqoopCoordinatedWorkflow(name + "-app", name, job.getSqoopImport(),
+                builder -> builder.fileExistDecision(flagPath), flagPath,
+                sqoopCreateCommand(job, orgJobContext, jobId), sqoopExecCommand(job, orgJobContext, jobId, passwordPath), orgJobContext);
+        final CoordinatorInstance coordinator = coordinator(job, sqoopWf, orgJobContext);
+        fileWriter.writeAll(
+                () -> space.createOozieWorkflow(ooziePath, workflow::writeTo),
+                () -> space.createOozieCoordinator(ooziePath, coordinator::writeTo),
+                () -> space.createFile(new Path(ooziePath, SQOOP_DRIVER_PROPERTIES_FILE), new ByteArrayInputStream(driverProperties(orgId))),
+                () -> createBoundaryQueryOptions(space, ooziePath, job.getSqoopImport()),
+                () -> createPasswordFile(space, passwordPath, job.getSqoopImport()));
 
-        final String sqoopWf = space.createOozieWorkflow(ooziePath, sqoopCoordinatedWorkflow(job,
-                new Path(ooziePath, "sqoop-create"), jobContext, jobId)).getParent().toString();
+        return oozieClient.submitCoordinatedJob(sqoopCr, targetPath.toUri().toString());
+    }
 
-        final String sqoopCr = space.createOozieCoordinator(ooziePath, coordinator(job, sqoopWf, jobContext)).getParent().toString();
+    private OozieJobId sqoopScheduledImportJobFromTemplate(SqoopScheduledImportJob job, String orgId, OrgSpecificSpace space,
+                                                           JobContext orgJobContext, String jobId) throws IOException {
 
-        space.createFile(new Path(ooziePath, SQOOP_DRIVER_PROPERTIES_FILE), driverProperties(orgId) );
+        final Path targetPath = space.resolveSqoopTargetDir(jobId, job.getSqoopImport().getTargetDir());
+        job.getSqoopImport().setTargetDir("${targetDir}");
 
-        return oozieClient.submitCoordinatedJob(sqoopCr, targetPath.toUri().toString());
+        final OozieSchedule schedule = job.getSchedule();
+        final Long frequencyAmount = CoordinatorInstance.validAmount(schedule.getFrequency());
+
+        final WorkflowInstance workflow = sqoopCoordinatedWorkflow(property(JOB_NAME) + "-app", TEMPLATE_NODE_PREFIX,
+                job.getSqoopImport(), builder -> builder.fileExistDecisionOnProperty(FLAG_PATH), property(FLAG_PATH),
+                property(SQOOP_CREATE_COMMAND), property(SQOOP_EXEC_COMMAND), orgJobContext);
+        final CoordinatorInstance coordinator = CoordinatorInstance.builder(orgJobContext)
+                .setName(property(JOB_NAME))
+                .setAppPath(property(WORKFLOW_APP_PATH))
+                .setOozieLibpath("/user/oozie/share/lib/")
+                .setOozieUseSystemLibpath(true)
+                .setScheduleProperties(schedule.getFrequency().getUnit(), FREQUENCY_AMOUNT,
+                        COORDINATOR_START, COORDINATOR_END, COORDINATOR_TIMEZONE)
+                .build();
+        final Path appDir = templateStore.store(space, workflow, coordinator,
+                Collections.singletonMap(SQOOP_DRIVER_PROPERTIES_FILE, driverProperties(orgId)));
+
+        // the flag is created by the workflow itself, only the password is written to the job directory on submission
+        final Path jobDir = space.resolveOozieDir(jobId, job.getAppPath());
+        final Path flagPath = new Path(jobDir, "sqoop-create");
+        final Path passwordPath = passwordFile(jobDir, job.getSqoopImport());
+        createPasswordFile(space, passwordPath, job.getSqoopImport());
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put(JOB_NAME, job.getName());
+        parameters.put(WORKFLOW_APP_PATH, space.resolveOozieWorkflow(appDir).getParent().toString());
+        parameters.put(FLAG_PATH, flagPath.toString());
+        parameters.put(SQOOP_CREATE_COMMAND, sqoopCreateCommand(job, orgJobContext, jobId));
+        parameters.put(SQOOP_EXEC_COMMAND, sqoopExecCommand(job, orgJobContext, jobId, passwordPath));
+        parameters.put(FREQUENCY_AMOUNT, frequencyAmount.toString());
+        parameters.put(COORDINATOR_START, schedule.coordinatorStart());
+        parameters.put(COORDINATOR_END, schedule.coordinatorEnd());
+        parameters.put(COORDINATOR_TIMEZONE, schedule.coordinatorZone());
+
+        final String sqoopCr = space.resolveOozieCoordinator(appDir).getParent().toString();
+        return oozieClient.submitCoordinatedJob(sqoopCr, targetPath.toUri().toString(), parameters);
     }
 
-    private InputStream coordinator(OozieScheduledJob job, String path, JobContext jobContext) {
+    /**
+     * Jobs with an explicit application path keep their own application directory, so do imports shipping
+     * a boundary query file as its content differs from job to job.
+     */
+    private boolean usesTemplate(OozieJob job, SqoopImport sqoopImport) {
+        return templateStore.isEnabled() && StringUtils.isEmpty(job.getAppPath())
+                && StringUtils.isEmpty(sqoopImport.getBoundaryQuery());
+    }
+
+    private static List<String> actionFiles(SqoopImport sqoopImport) {
+        final List<String> files = new ArrayList<>();
+        files.add(SQOOP_DRIVER_PROPERTIES_FILE);
+        if (StringUtils.isNotEmpty(sqoopImport.getBoundaryQuery())) {
+            files.add(SqoopCommand.BOUNDARY_QUERY_FILE);
+        }
+        return files;
+    }
+
+    private static void createBoundaryQueryOptions(OrgSpecificSpace space, Path ooziePath, SqoopImport sqoopImport) throws IOException {
+        if (StringUtils.isNotEmpty(sqoopImport.getBoundaryQuery())) {
+            final byte[] options = SqoopCommand.boundaryQueryOptions(sqoopImport).getBytes(StandardCharsets.UTF_8);
+            space.createFile(new Path(ooziePath, SqoopCommand.BOUNDARY_QUERY_FILE), new ByteArrayInputStream(options));
+        }
+    }
+
+    private static Path passwordFile(Path jobDir, SqoopImport sqoopImport) {
+        return StringUtils.isEmpty(sqoopImport.getPassword()) ? null : new Path(jobDir, SqoopCommand.PASSWORD_FILE);
+    }
+
+    // sqoop takes the whole file content as the password, so no line break is added
+    private static void createPasswordFile(OrgSpecificSpace space, Path passwordPath, SqoopImport sqoopImport) {
+        if (passwordPath != null) {
+            space.createFile(passwordPath, new ByteArrayInputStream(sqoopImport.getPassword().getBytes(StandardCharsets.UTF_8)),
+                    PASSWORD_FILE_PERMISSION);
+        }
+    }
+
+    private static String pathString(Path path) {
+        return path == null ? null : path.toString();
+    }
+
+    private static String property(String name) {
+        return "${" + name + "}";
+    }
+
+    private static String sqoopImportCommand(SqoopImportJob job, JobContext jobContext, Path passwordPath) {
+        return new SqoopCommand("import", jobContext.getSqoopMetastore()).sqoopImport(job.getSqoopImport(), pathString(passwordPath)).command();
+    }
+
+    private static String sqoopCreateCommand(SqoopScheduledImportJob job, JobContext jobContext, String jobId) {
+        return new SqoopCommand("job", jobContext.getSqoopMetastore()).create(jobId, job.getSqoopImport()).command();
+    }
+
+    private static String sqoopExecCommand(SqoopScheduledImportJob job, JobContext jobContext, String jobId, Path passwordPath) {
+        return new SqoopCommand("job", jobContext.getSqoopMetastore()).exec(jobId, job.getSqoopImport(), pathString(passwordPath)).command();
+    }
+
+    private CoordinatorInstance coordinator(OozieScheduledJob job, String path, JobContext jobContext) {
         return CoordinatorInstance.builder(jobContext)
                 .setName(job.getName())
                 .setAppPath(path)
                 .setOozieLibpath("/user/oozie/share/lib/")
                 .setOozieUseSystemLibpath(true)
                 .setOozieSchedule(job.getSchedule())
-                .build()
-                .asStream();
+                .build();
     }
 
-    private InputStream sqoopWorkflow(SqoopImportJob sqoopImportJob,
-                                      JobContext jobContext) {
-        final String name = sqoopImportJob.getName();
-        final String sqoopImportJobName = name + "-import";
+    private WorkflowInstance sqoopWorkflow(String appName, String nodePrefix, String command, List<String> files,
+                                           JobContext jobContext) {
+        final String sqoopImportJobName = nodePrefix + "-import";
 
         return WorkflowInstance.builder(jobContext)
-                .setName(name + "-app")
+                .setName(appName)
                 .setStartNode(sqoopImportJobName)
                 .sqoopAction()
-                    .setCommand(new SqoopCommand("import", jobContext.getSqoopMetastore())
-                            .sqoopImport(sqoopImportJob.getSqoopImport()).command())
+                    .setCommand(command)
                     .setName(sqoopImportJobName)
-                    .addFile(SQOOP_DRIVER_PROPERTIES_FILE)
+                    .addFiles(files)
                     .then("end")
                 .and()
                 .sqoopKill(ERR_MSG)
-                .build()
-                .asStream();
+                .build();
     }
 
-    private InputStream sqoopCoordinatedWorkflow(SqoopScheduledImportJob sqoopImportJob,
-                                                 Path flagPath,
-                                                 JobContext jobContext, String jobId) {
-        final String name = sqoopImportJob.getName();
-        final String sqoopExecJobName = name + "-exec";
-        final String flagJobName = name + "-flag";
-        final String createJobName = name + "-create";
-        final String decisionNodeName = name + "-decision";
-        final String cleanupNodeName = name + "-cleanup";
+    private WorkflowInstance sqoopParallelWorkflow(String appName, String nodePrefix, List<String> commands, int lanes,
+                                                   JobContext jobContext) {
+        final String forkNodeName = nodePrefix + "-fork";
+        final String joinNodeName = nodePrefix + "-join";
+        final String laneEnd = lanes > 1 ? joinNodeName : "end";
+
+        final WorkflowInstanceBuilder builder = WorkflowInstance.builder(jobContext).setName(appName);
+        if (lanes > 1) {
+            builder.setStartNode(forkNodeName);
+            final WorkflowForkNodeBuilder fork = builder.fork().setName(forkNodeName);
+            for (int lane = 0; lane < lanes; lane++) {
+                fork.addPath(nodePrefix + "-import-" + lane);
+            }
+        } else {
+            builder.setStartNode(nodePrefix + "-import-0");
+        }
+
+        // table i runs in lane i % lanes, after table i - lanes of the same lane
+        for (int i = 0; i < commands.size(); i++) {
+            final int next = i + lanes;
+            builder.sqoopAction()
+                    .setCommand(commands.get(i))
+                    .setName(nodePrefix + "-import-" + i)
+                    .addFile(SQOOP_DRIVER_PROPERTIES_FILE)
+                    .then(next < commands.size() ? nodePrefix + "-import-" + next : laneEnd);
+        }
 
-        return WorkflowInstance.builder(jobContext)
-                .setName(name + "-app")
-                .setStartNode(decisionNodeName)
-                .fileExistDecision(flagPath.toString())
+        if (lanes > 1) {
+            builder.join().setName(joinNodeName).then("end");
+        }
+        return builder.sqoopKill(ERR_MSG).build();
+    }
+
+    private WorkflowInstance sqoopCoordinatedWorkflow(String appName, String nodePrefix, SqoopImport sqoopImport,
+                                                      Function<WorkflowInstanceBuilder, WorkflowDecisionNodeBuilder> flagDecision,
+                                                      String flagPath, String createCommand, String execCommand,
+                                                      JobContext jobContext) {
+        final String sqoopExecJobName = nodePrefix + "-exec";
+        final String flagJobName = nodePrefix + "-flag";
+        final String createJobName = nodePrefix + "-create";
+        final String decisionNodeName = nodePrefix + "-decision";
+        final String cleanupNodeName = nodePrefix + "-cleanup";
+
+        return flagDecision.apply(WorkflowInstance.builder(jobContext)
+                .setName(appName)
+                .setStartNode(decisionNodeName))
                    .setName(decisionNodeName)
                     // go to cleanup node first, but only in case we remove previous import results (overwrite)
-                   .then(sqoopImportJob.getSqoopImport().getOverwrite() ? cleanupNodeName : sqoopExecJobName)
+                   .then(sqoopImport.getOverwrite() ? cleanupNodeName : sqoopExecJobName)
                    .orElse(createJobName)
                    .and()
                 .sqoopAction()
-                   .setCommand(new SqoopCommand("job", jobContext.getSqoopMetastore())
-                           .create(jobId, sqoopImportJob.getSqoopImport()).command())
+                   .setCommand(createCommand)
                 .setName(createJobName)
                    .then(flagJobName)
-                   .addFile(SQOOP_DRIVER_PROPERTIES_FILE)
+                   .addFiles(actionFiles(sqoopImport))
                    .and()
                 .createFile()
-                    .setPath(flagPath.toString())
+                    .setPath(flagPath)
                     .setName(flagJobName)
                     .then(sqoopExecJobName)
                 .and()
                 .deleteFile()
-                    .setPath(sqoopImportJob.getSqoopImport().getTargetDir())
+                    .setPath(sqoopImport.getTargetDir())
                     .setName(cleanupNodeName)
                     .then(sqoopExecJobName)
                 .and()
                 .sqoopAction()
-                .setCommand(new SqoopCommand("job", jobContext.getSqoopMetastore())
-                        .exec(jobId, sqoopImportJob.getSqoopImport()).command())
+                .setCommand(execCommand)
                 .setName(sqoopExecJobName)
                 .then("end")
                 .and()
                 .sqoopKill(ERR_MSG)
-                .build()
-                .asStream();
+                .build();
     }
 
-    private InputStream driverProperties(String orgId) {
+    private byte[] driverProperties(String orgId) {
         int maxAcceptableUserNameForOracle = 29;
         String oracleUserName = orgId.length() > maxAcceptableUserNameForOracle ? orgId.substring(0,maxAcceptableUserNameForOracle) : orgId;
         String oracleOsuserParam = "v$session.osuser=" + oracleUserName + "\n";
-        return new ByteArrayInputStream(oracleOsuserParam.getBytes(StandardCharsets.UTF_8));
+        return oracleOsuserParam.getBytes(StandardCharsets.UTF_8);
     }
 }
\ No newline at end of file
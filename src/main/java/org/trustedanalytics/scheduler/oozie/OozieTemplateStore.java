@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.filesystem.FileContent;
+import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpace;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter.FileWrite;
+import org.trustedanalytics.scheduler.oozie.serialization.CoordinatorInstance;
+import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance;
+import org.trustedanalytics.scheduler.utils.SingleFlight;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores oozie applications whose per-job values are left to job configuration properties. Every distinct set of
+ * application files is written once per organization space, into a directory named after the hash of its content,
+ * so jobs of the same shape share it. Submitting them writes no application files, only the database password is
+ * kept in a private file of the job directory, out of the job configuration anyone can read.
+ */
+@Component
+public class OozieTemplateStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OozieTemplateStore.class);
+    private static final String WORKFLOW = "workflow.xml";
+    private static final String COORDINATOR = "coordinator.xml";
+    private static final String STORED_MARKER = "_STORED";
+
+    private final boolean enabled;
+    private final ParallelFileWriter fileWriter;
+    private final Set<Path> stored = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<Path, Path> writes = new SingleFlight<>();
+
+    @Autowired
+    public OozieTemplateStore(@Value("${oozie.templates.enabled:false}") boolean enabled, ParallelFileWriter fileWriter) {
+        this.enabled = enabled;
+        this.fileWriter = fileWriter;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param coordinator coordinator template, or null for a workflow application
+     * @param files additional files of the application directory by name
+     * @return application directory holding the given files
+     */
+    public Path store(OrgSpecificSpace space, WorkflowInstance workflow, CoordinatorInstance coordinator,
+                      Map<String, byte[]> files) throws IOException {
+        final SortedMap<String, byte[]> content = new TreeMap<>(files);
+        content.put(WORKFLOW, render(workflow::writeTo));
+        if (coordinator != null) {
+            content.put(COORDINATOR, render(coordinator::writeTo));
+        }
+
+        final Path dir = space.resolveOozieTemplateDir(hash(content));
+        if (stored.contains(dir)) {
+            return dir;
+        }
+        try {
+            return writes.execute(dir, () -> {
+                writeTemplate(space, dir, content);
+                stored.add(dir);
+                return dir;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // files are written into a private directory that is renamed into place once complete, so oozie never sees a
+    // partially written template and a template directory that exists is complete
+    private void writeTemplate(OrgSpecificSpace space, Path dir, Map<String, byte[]> content) {
+        try {
+            if (space.fileExists(new Path(dir, STORED_MARKER))) {
+                return;
+            }
+            final Path staging = new Path(dir.getParent(), "." + dir.getName() + "-" + UUID.randomUUID());
+            final List<FileWrite> files = new ArrayList<>();
+            for (Map.Entry<String, byte[]> file : content.entrySet()) {
+                final byte[] bytes = file.getValue();
+                if (WORKFLOW.equals(file.getKey())) {
+                    files.add(() -> space.createOozieWorkflow(staging, out -> out.write(bytes)));
+                } else if (COORDINATOR.equals(file.getKey())) {
+                    files.add(() -> space.createOozieCoordinator(staging, out -> out.write(bytes)));
+                } else {
+                    files.add(() -> space.createFile(new Path(staging, file.getKey()), new ByteArrayInputStream(bytes)));
+                }
+            }
+            try {
+                fileWriter.writeAll(files.toArray(new FileWrite[files.size()]));
+                space.createFile(new Path(staging, STORED_MARKER), new ByteArrayInputStream(new byte[0]));
+                publish(space, staging, dir);
+            } finally {
+                space.delete(staging);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.info("Template {} stored, {} files written", dir, content.size());
+    }
+
+    private static void publish(OrgSpecificSpace space, Path staging, Path dir) throws IOException {
+        if (space.rename(staging, dir)) {
+            return;
+        }
+        final Path marker = new Path(dir, STORED_MARKER);
+        if (space.fileExists(marker)) {
+            LOGGER.debug("Template {} stored concurrently", dir);
+            return;
+        }
+        // left over by an interrupted in-place write, jobs using it could not have run
+        LOGGER.warn("Replacing incomplete template {}", dir);
+        space.delete(dir);
+        if (!space.rename(staging, dir) && !space.fileExists(marker)) {
+            throw new IOException("Unable to store template: " + dir);
+        }
+    }
+
+    private static byte[] render(FileContent content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static String hash(SortedMap<String, byte[]> content) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        content.forEach((name, bytes) -> hasher
+                .putBytes(name.getBytes(StandardCharsets.UTF_8))
+                .putInt(bytes.length)
+                .putBytes(bytes));
+        return hasher.hash().toString();
+    }
+}
@@ -27,6 +27,22 @@ import java.util.Objects;
 public class SqoopCommand extends AbstractCommandLine {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SqoopCommand.class);
+
+    /**
+     * Oozie splits the sqoop command on spaces, so the boundary query is passed in an options file shipped with the action.
+     */
+    public static final String BOUNDARY_QUERY_FILE = "boundary-query.options";
+
+    /**
+     * Oozie returns the job configuration, which carries the sqoop command, to anyone asking, so the password is
+     * never part of the command. Sqoop reads it from this file in the job directory instead.
+     */
+    public static final String PASSWORD_FILE = "sqoop.password";
+
+    public static final String TEXT_FORMAT = "text";
+    public static final String AVRO_FORMAT = "avro";
+    public static final String PARQUET_FORMAT = "parquet";
+
     private final String sqoopMetastore;
     private final String name;
 
@@ -47,19 +63,23 @@ public class SqoopCommand extends AbstractCommandLine {
         requiredArgument("import");
         requiredArgument("--connect", sqoopImport.getJdbcUri());
         requiredArgument("--table", sqoopImport.getTable());
-        optionalArgument("--num-mappers", "1");
+        parallelismArguments(sqoopImport);
         optionalArgument("--target-dir", sqoopImport.getTargetDir());
         optionalStringArgument("--check-column", sqoopImport.getCheckColumn(), sqoopImport.getIncremental());
         optionalStringArgument("--last-value", sqoopImport.getLastValue(), sqoopImport.getIncremental());
         optionalArgument("--incremental append", sqoopImport.getIncremental());
         optionalArgument("--append", sqoopImport.getAppend());
+        outputArguments(sqoopImport);
         requiredArgument("--connection-param-file", "driver.properties");
         optionalStringArgument("--driver", sqoopImport.getDriver(), !StringUtils.isEmpty(sqoopImport.getDriver()));
 
         return this;
     }
 
-    public SqoopCommand exec(String jobId, SqoopImport sqoopImport) {
+    /**
+     * @param passwordFile path of the file holding the database password, null when no password is given
+     */
+    public SqoopCommand exec(String jobId, SqoopImport sqoopImport, String passwordFile) {
         requiredArgument("--exec", jobId);
         requiredArgument("--meta-connect", sqoopMetastore);
 
@@ -68,7 +88,7 @@ public class SqoopCommand extends AbstractCommandLine {
         if(StringUtils.isNotBlank(username)) {
             requiredArgument("--");
             requiredArgument("--username", sqoopImport.getUsername());
-            optionalStringArgument("--password", sqoopImport.getPassword(), !StringUtils.isEmpty(sqoopImport.getPassword()));
+            optionalArgument("--password-file", passwordFile);
             requiredArgument(" --");
         }
 
@@ -79,14 +99,18 @@ public class SqoopCommand extends AbstractCommandLine {
         return this;
     }
 
-    public SqoopCommand sqoopImport(SqoopImport sqoopImport) {
+    /**
+     * @param passwordFile path of the file holding the database password, null when no password is given
+     */
+    public SqoopCommand sqoopImport(SqoopImport sqoopImport, String passwordFile) {
         requiredArgument("--connect", sqoopImport.getJdbcUri());
         requiredArgument("--table", sqoopImport.getTable());
         requiredArgument("--username", sqoopImport.getUsername());
-        requiredArgument("--password", sqoopImport.getPassword());
-        optionalArgument("--num-mappers", "1");
+        optionalArgument("--password-file", passwordFile);
+        parallelismArguments(sqoopImport);
         optionalArgument("--target-dir", sqoopImport.getTargetDir());
         optionalArgument("--append");
+        outputArguments(sqoopImport);
         requiredArgument("--connection-param-file", "driver.properties");
         optionalStringArgument("--driver",sqoopImport.getDriver(),!StringUtils.isEmpty(sqoopImport.getDriver()));
         optionalStringArgument("--schema", sqoopImport.getSchema(), !StringUtil.isEmpty(sqoopImport.getSchema()));
@@ -94,4 +118,31 @@ public class SqoopCommand extends AbstractCommandLine {
         return this;
     }
 
+    /**
+     * Content of the options file referenced by the command when a boundary query is given,
+     * the options file takes one argument per line.
+     */
+    public static String boundaryQueryOptions(SqoopImport sqoopImport) {
+        return "--boundary-query\n" + sqoopImport.getBoundaryQuery().replaceAll("\\s+", " ").trim() + "\n";
+    }
+
+    private void outputArguments(SqoopImport sqoopImport) {
+        final String codec = sqoopImport.getCompressionCodec();
+
+        optionalArgument("--as-avrodatafile", AVRO_FORMAT.equalsIgnoreCase(sqoopImport.getFileFormat()));
+        optionalArgument("--as-parquetfile", PARQUET_FORMAT.equalsIgnoreCase(sqoopImport.getFileFormat()));
+        optionalArgument("--compress", Boolean.TRUE.equals(sqoopImport.getCompress()) || !StringUtils.isEmpty(codec));
+        optionalStringArgument("--compression-codec", StringUtils.lowerCase(codec), !StringUtils.isEmpty(codec));
+    }
+
+    private void parallelismArguments(SqoopImport sqoopImport) {
+        final int mappers = sqoopImport.getMappers() == null ? 1 : sqoopImport.getMappers();
+        final boolean splitByGiven = !StringUtils.isEmpty(sqoopImport.getSplitBy());
+
+        optionalArgument("--num-mappers", String.valueOf(mappers));
+        optionalStringArgument("--split-by", sqoopImport.getSplitBy(), splitByGiven);
+        // tables without a primary key still import, sequentially, when no split column is given
+        optionalArgument("--autoreset-to-one-mapper", mappers > 1 && !splitByGiven);
+        optionalStringArgument("--options-file", BOUNDARY_QUERY_FILE, !StringUtils.isEmpty(sqoopImport.getBoundaryQuery()));
+    }
 }
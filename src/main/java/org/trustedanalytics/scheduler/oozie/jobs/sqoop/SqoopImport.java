@@ -42,9 +42,18 @@ public class SqoopImport {
     // Columns to import from table
     private List<String> columns;
 
-    // Use n map tasks to import in parallel
+    // Use n map tasks to import in parallel, when not given it is estimated from estimatedRows
     private Integer mappers;
 
+    // Column of the table used to split work units
+    private String splitBy;
+
+    // Query returning the minimum and maximum value of the split column
+    private String boundaryQuery;
+
+    // Approximate number of rows in the table, used to pick the number of mappers
+    private Long estimatedRows;
+
     // Table to read
     private String table;
 
@@ -54,6 +63,12 @@ public class SqoopImport {
     // Enable compression
     private Boolean compress;
 
+    // Output file format: text, avro or parquet, text when not given
+    private String fileFormat;
+
+    // Compression codec: snappy or gzip, implies compress
+    private String compressionCodec;
+
     // Cleans output dir
     private Boolean overwrite = false;
 
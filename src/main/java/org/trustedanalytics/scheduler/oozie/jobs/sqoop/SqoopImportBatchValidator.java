@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.jobs.sqoop;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ValidationUtils;
+import org.springframework.validation.Validator;
+import org.trustedanalytics.scheduler.oozie.jobs.OozieScheduledJobValidator;
+
+import java.util.List;
+
+@Component
+public class SqoopImportBatchValidator implements Validator {
+
+    private final SqoopImportJobValidator sqoopImportJobValidator;
+    private final OozieScheduledJobValidator oozieScheduledJobValidator;
+
+    @Autowired
+    public SqoopImportBatchValidator(SqoopImportJobValidator sqoopImportJobValidator,
+                                     OozieScheduledJobValidator oozieScheduledJobValidator) {
+        this.sqoopImportJobValidator = sqoopImportJobValidator;
+        this.oozieScheduledJobValidator = oozieScheduledJobValidator;
+    }
+
+    @Override
+    public boolean supports(Class<?> aClass) {
+        return SqoopImportBatch.class.equals(aClass);
+    }
+
+    @Override
+    public void validate(Object o, Errors errors) {
+        SqoopImportBatch batch = (SqoopImportBatch) o;
+        if (isEmpty(batch.getWorkflows()) && isEmpty(batch.getCoordinated())) {
+            errors.rejectValue("workflows", "workflows.required", "Batch must contain at least one job");
+            return;
+        }
+
+        for (int i = 0; i < size(batch.getWorkflows()); i++) {
+            if (batch.getWorkflows().get(i) == null) {
+                errors.rejectValue("workflows[" + i + "]", "workflows.null", "Job must not be null");
+                continue;
+            }
+            errors.pushNestedPath("workflows[" + i + "]");
+            ValidationUtils.invokeValidator(sqoopImportJobValidator, batch.getWorkflows().get(i), errors);
+            errors.popNestedPath();
+        }
+        for (int i = 0; i < size(batch.getCoordinated()); i++) {
+            if (batch.getCoordinated().get(i) == null) {
+                errors.rejectValue("coordinated[" + i + "]", "coordinated.null", "Job must not be null");
+                continue;
+            }
+            errors.pushNestedPath("coordinated[" + i + "]");
+            ValidationUtils.invokeValidator(sqoopImportJobValidator, batch.getCoordinated().get(i), errors);
+            ValidationUtils.invokeValidator(oozieScheduledJobValidator, batch.getCoordinated().get(i), errors);
+            errors.popNestedPath();
+        }
+    }
+
+    private static boolean isEmpty(List<?> jobs) {
+        return size(jobs) == 0;
+    }
+
+    private static int size(List<?> jobs) {
+        return jobs == null ? 0 : jobs.size();
+    }
+}
@@ -15,15 +15,33 @@
  */
 package org.trustedanalytics.scheduler.oozie.jobs.sqoop;
 
+import com.google.common.collect.ImmutableList;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
 import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
+import org.trustedanalytics.scheduler.DatabaseProvider;
+import org.trustedanalytics.scheduler.config.Database;
+import rx.Observable;
+
+import java.util.List;
 
 @Component
 public class SqoopImportValidator implements Validator {
 
+    private static final List<String> FILE_FORMATS =
+            ImmutableList.of(SqoopCommand.TEXT_FORMAT, SqoopCommand.AVRO_FORMAT, SqoopCommand.PARQUET_FORMAT);
+    private static final List<String> COMPRESSION_CODECS = ImmutableList.of("snappy", "gzip");
+
+    private final Observable<Database> databases;
+
+    @Autowired
+    public SqoopImportValidator(DatabaseProvider databaseProvider) {
+        this.databases = databaseProvider.getEnabledEngines();
+    }
+
     @Override
     public boolean supports(Class<?> aClass) {
         return SqoopImport.class.equals(aClass);
@@ -37,5 +55,46 @@ public class SqoopImportValidator implements Validator {
         if ("incremental".equalsIgnoreCase(sqoopImport.getImportMode()) && StringUtils.isEmpty(sqoopImport.getCheckColumn())) {
             errors.rejectValue("checkColumn", "checkColumn.required", "CheckColumn must be set when using incremental mode");
         }
+
+        if (sqoopImport.getMappers() != null && sqoopImport.getMappers() < 1) {
+            errors.rejectValue("mappers", "mappers.invalid", "Mappers must be at least 1");
+        }
+
+        // the column ends up in a command that is split on whitespace
+        if (StringUtils.containsWhitespace(sqoopImport.getSplitBy())) {
+            errors.rejectValue("splitBy", "splitBy.invalid", "Split column must be a single column name without whitespace");
+        }
+
+        if (sqoopImport.getEstimatedRows() != null && sqoopImport.getEstimatedRows() < 0) {
+            errors.rejectValue("estimatedRows", "estimatedRows.invalid", "Estimated rows must not be negative");
+        }
+
+        if (StringUtils.hasText(sqoopImport.getCompressionCodec())
+                && !COMPRESSION_CODECS.contains(sqoopImport.getCompressionCodec().toLowerCase())) {
+            errors.rejectValue("compressionCodec", "compressionCodec.unsupported",
+                    "Compression codec must be one of " + COMPRESSION_CODECS);
+        }
+
+        validateFileFormat(sqoopImport, errors);
+    }
+
+    private void validateFileFormat(SqoopImport sqoopImport, Errors errors) {
+        if (!StringUtils.hasText(sqoopImport.getFileFormat())) {
+            return;
+        }
+        final String fileFormat = sqoopImport.getFileFormat().toLowerCase();
+        if (!FILE_FORMATS.contains(fileFormat)) {
+            errors.rejectValue("fileFormat", "fileFormat.unsupported", "File format must be one of " + FILE_FORMATS);
+            return;
+        }
+
+        if (databases != null && sqoopImport.getJdbcUri() != null) {
+            databases
+                    .filter(db -> db.getDrivers().stream().anyMatch(driver -> sqoopImport.getJdbcUri().contains(driver.getName())))
+                    .limit(1)
+                    .filter(db -> db.getFileFormats() != null && !db.getFileFormats().contains(fileFormat))
+                    .subscribe(db -> errors.rejectValue("fileFormat", "fileFormat.unsupported",
+                            String.format("%s imports support only %s file formats", db.getName(), db.getFileFormats())));
+        }
     }
 }
@@ -19,6 +19,7 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.trustedanalytics.scheduler.DatabaseProvider;
 import org.trustedanalytics.scheduler.config.Database;
@@ -30,10 +31,13 @@ public class SqoopJobMapper {
     private static final Logger LOGGER = LoggerFactory.getLogger(SqoopJobMapper.class);
 
     private final Observable<Database> databases;
+    private final long rowsPerMapper;
 
     @Autowired
-    public SqoopJobMapper(DatabaseProvider databaseProvider) {
+    public SqoopJobMapper(DatabaseProvider databaseProvider,
+                          @Value("${sqoop.import.rows-per-mapper:5000000}") long rowsPerMapper) {
         this.databases = databaseProvider.getEnabledEngines();
+        this.rowsPerMapper = rowsPerMapper;
     }
 
     public void adjust(SqoopImportJob job) {
@@ -41,6 +45,11 @@ public class SqoopJobMapper {
         adjustSqoopImport(job.getSqoopImport());
     }
 
+    public void adjust(SqoopMultiTableImportJob job) {
+        job.setName(job.getName().replace(" ", "_"));
+        adjustSqoopImport(job.getSqoopImport());
+    }
+
     public void adjust(SqoopScheduledImportJob job) {
         job.setName(job.getName().replace(" ", "_"));
         adjustSqoopImport(job.getSqoopImport());
@@ -77,6 +86,7 @@ public class SqoopJobMapper {
         }).subscribe();
 
         setDriverClassNameIfEmpty(sqoopImport);
+        setMappers(sqoopImport);
     }
 
     private void adjustJdbcStringForAnyDatabaseExceptOracle(SqoopImport importJob) {
@@ -93,6 +103,29 @@ public class SqoopJobMapper {
         }
     }
 
+    /**
+     * Picks the number of mappers from the estimated table size when not given and caps it at the database limit.
+     */
+    private void setMappers(SqoopImport sqoopImport) {
+        if (sqoopImport.getMappers() == null && sqoopImport.getEstimatedRows() != null) {
+            long estimated = (sqoopImport.getEstimatedRows() + rowsPerMapper - 1) / rowsPerMapper;
+            sqoopImport.setMappers((int) Math.max(1, Math.min(estimated, Integer.MAX_VALUE)));
+            LOGGER.info("Using {} mappers for {} estimated rows", sqoopImport.getMappers(), sqoopImport.getEstimatedRows());
+        }
+
+        if (databases != null && sqoopImport.getMappers() != null) {
+            databases
+                    .filter(db -> db.getMaxMappers() != null)
+                    .filter(db -> db.getDrivers().stream().anyMatch(driver -> sqoopImport.getJdbcUri().contains(driver.getName())))
+                    .limit(1)
+                    .filter(db -> sqoopImport.getMappers() > db.getMaxMappers())
+                    .subscribe(db -> {
+                        LOGGER.info("Limiting mappers to {} allowed for {}", db.getMaxMappers(), db.getName());
+                        sqoopImport.setMappers(db.getMaxMappers());
+                    });
+        }
+    }
+
     private Observable.Transformer<SqoopImport, SqoopImport> transform() {
         return sqoopImport -> sqoopImport;
     }
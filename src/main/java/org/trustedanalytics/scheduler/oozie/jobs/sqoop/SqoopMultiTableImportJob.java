@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.jobs.sqoop;
+
+import org.trustedanalytics.scheduler.oozie.jobs.OozieJob;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports several tables of one database within a single workflow.
+ */
+@Data
+public class SqoopMultiTableImportJob extends OozieJob {
+
+    // connection and import settings shared by all tables, each table is imported into a subdirectory of targetDir
+    protected SqoopImport sqoopImport;
+
+    protected List<String> tables = new ArrayList<>();
+
+    // maximum number of tables imported at the same time, capped by oozie.multi-table-import.max-parallelism
+    protected Integer parallelism;
+}
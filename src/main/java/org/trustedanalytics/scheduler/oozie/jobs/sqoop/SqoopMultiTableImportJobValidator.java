@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.jobs.sqoop;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ValidationUtils;
+import org.springframework.validation.Validator;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Component
+public class SqoopMultiTableImportJobValidator implements Validator {
+
+    // table names become target directory names and tokens of the space-split sqoop command
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z0-9_$][A-Za-z0-9_.$]*");
+
+    private final SqoopImportValidator sqoopImportValidator;
+
+    @Autowired
+    public SqoopMultiTableImportJobValidator(SqoopImportValidator sqoopImportValidator) {
+        this.sqoopImportValidator = sqoopImportValidator;
+    }
+
+    @Override
+    public boolean supports(Class<?> aClass) {
+        return SqoopMultiTableImportJob.class.equals(aClass);
+    }
+
+    @Override
+    public void validate(Object o, Errors errors) {
+        SqoopMultiTableImportJob job = (SqoopMultiTableImportJob) o;
+
+        List<String> tables = job.getTables();
+        if (tables == null || tables.isEmpty()) {
+            errors.rejectValue("tables", "tables.required", "At least one table must be given");
+        } else {
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < tables.size(); i++) {
+                if (!StringUtils.hasText(tables.get(i))) {
+                    errors.rejectValue("tables[" + i + "]", "tables.empty", "Table name must not be empty");
+                } else if (!TABLE_NAME.matcher(tables.get(i)).matches() || tables.get(i).contains("..")) {
+                    errors.rejectValue("tables[" + i + "]", "tables.invalid",
+                            "Table name may contain only letters, digits, '_', '$' and single dots between them");
+                } else if (!seen.add(tables.get(i))) {
+                    errors.rejectValue("tables[" + i + "]", "tables.duplicate", "Table " + tables.get(i) + " is listed twice");
+                }
+            }
+        }
+
+        if (job.getParallelism() != null && job.getParallelism() < 1) {
+            errors.rejectValue("parallelism", "parallelism.invalid", "Parallelism must be at least 1");
+        }
+
+        if (job.getSqoopImport() == null) {
+            errors.rejectValue("sqoopImport", "sqoopImport.required", "Import settings must be given");
+            return;
+        }
+        if (!StringUtils.isEmpty(job.getSqoopImport().getBoundaryQuery())) {
+            errors.rejectValue("sqoopImport.boundaryQuery", "boundaryQuery.unsupported",
+                    "Boundary query is bound to a single table and can not be shared by many tables");
+        }
+        errors.pushNestedPath("sqoopImport");
+        ValidationUtils.invokeValidator(sqoopImportValidator, job.getSqoopImport(), errors);
+        errors.popNestedPath();
+    }
+}
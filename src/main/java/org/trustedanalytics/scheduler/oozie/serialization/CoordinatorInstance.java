@@ -15,16 +15,14 @@
  */
 package org.trustedanalytics.scheduler.oozie.serialization;
 
-import com.jamesmurty.utils.XMLBuilder2;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.trustedanalytics.scheduler.oozie.OozieFrequency;
 import org.trustedanalytics.scheduler.oozie.OozieSchedule;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Objects;
-import java.util.Properties;
 
 public class CoordinatorInstance {
 
@@ -56,6 +54,14 @@ public class CoordinatorInstance {
         return new CoordinatorInstanceBuilder(jobContext);
     }
 
+    public static Long validAmount(OozieFrequency frequency) {
+        if ((Objects.equals(frequency.getUnit(), "minutes") && frequency.getAmount() >= 5)
+            || (!Objects.equals(frequency.getUnit(), "minutes") && frequency.getAmount() > 0)) {
+            return frequency.getAmount();
+        }
+        throw new IllegalArgumentException("Coordinator frequency must be bigger then 5 minutes");
+    }
+
     public static class CoordinatorInstanceBuilder {
         private String name;
         private String oozieLibpath;
@@ -95,56 +101,66 @@ public class CoordinatorInstance {
             this.start = oozieSchedule.coordinatorStart();
             this.end = oozieSchedule.coordinatorEnd();
             this.timezone = oozieSchedule.coordinatorZone();
+            this.frequency = frequency(oozieSchedule.getFrequency().getUnit(), validAmount(oozieSchedule.getFrequency()).toString());
+            return this;
+        }
 
-            if((Objects.equals(oozieSchedule.getFrequency().getUnit(), "minutes") && oozieSchedule.getFrequency().getAmount() >= 5)
-                || (!Objects.equals(oozieSchedule.getFrequency().getUnit(), "minutes") && oozieSchedule.getFrequency().getAmount() > 0)) {
-                // @formatter:off
-                this.frequency = String.format("${coord:%s(%s)}", oozieSchedule.getFrequency().getUnit(), oozieSchedule.getFrequency().getAmount());
-                // @formatter:on
-            } else {
-                throw new IllegalArgumentException("Coordinator frequency must be bigger then 5 minutes");
-            }
+        /**
+         * Leaves start, end, timezone and frequency amount to job configuration properties, only the frequency
+         * unit is part of the document. Property names must be valid EL variable names.
+         */
+        public CoordinatorInstanceBuilder setScheduleProperties(String frequencyUnit, String frequencyAmountProperty,
+                                                                String startProperty, String endProperty, String timezoneProperty) {
+            this.start = "${" + startProperty + "}";
+            this.end = "${" + endProperty + "}";
+            this.timezone = "${" + timezoneProperty + "}";
+            this.frequency = frequency(frequencyUnit, frequencyAmountProperty);
             return this;
         }
 
+        private static String frequency(String unit, String amount) {
+            return String.format("${coord:%s(%s)}", unit, amount);
+        }
+
         public CoordinatorInstance build() {
             return new CoordinatorInstance(this);
         }
     }
 
-    public InputStream asStream() {
-        Properties outputProperties = new Properties();
-        outputProperties.put(javax.xml.transform.OutputKeys.OMIT_XML_DECLARATION, "yes");
-        outputProperties.put(javax.xml.transform.OutputKeys.METHOD, "xml");
-        outputProperties.put(javax.xml.transform.OutputKeys.INDENT, "yes");
-        outputProperties.put("{http://xml.apache.org/xslt}indent-amount", "2");
-
-        String xml = XMLBuilder2.create("coordinator-app")
-                    .a("name", name)
-                    .a("frequency", frequency)
-                    .a("start", start)
-                    .a("end", end)
-                    .a("timezone", timezone)
-                .ns("uri:oozie:coordinator:0.4")
-                .e("action")
-                  .e("workflow")
-                    .e("app-path").t(appPath)
-                      .up()
-                    .e("configuration")
-                      .importXMLBuilder(property("jobTracker", jobContext.getJobTracker()))
-                      .importXMLBuilder(property("nameNode", jobContext.getNameNode()))
-                      .importXMLBuilder(property("queueName", jobContext.getQueueName()))
-                      .importXMLBuilder(property("oozie.libpath", oozieLibpath))
-                      .importXMLBuilder(property("oozie.use.system.libpath", oozieUseSystemLibpath.toString()))
-                .asString(outputProperties);
-
-        LOGGER.info("Generated coordinator.xml: {}", xml);
-        return IOUtils.toInputStream(xml, StandardCharsets.UTF_8);
+    /**
+     * Writes coordinator.xml straight into the given stream, the stream is flushed but not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        OozieXmlWriter writer = new OozieXmlWriter(out);
+        // attributes in the order the DOM serializer used to emit them
+        writer.start("coordinator-app")
+                    .attribute("xmlns", "uri:oozie:coordinator:0.4")
+                    .attribute("end", end)
+                    .attribute("frequency", frequency)
+                    .attribute("name", name)
+                    .attribute("start", start)
+                    .attribute("timezone", timezone)
+                .start("action")
+                  .start("workflow")
+                    .element("app-path", appPath)
+                    .start("configuration");
+        property(writer, "jobTracker", jobContext.getJobTracker());
+        property(writer, "nameNode", jobContext.getNameNode());
+        property(writer, "queueName", jobContext.getQueueName());
+        property(writer, "oozie.libpath", oozieLibpath);
+        property(writer, "oozie.use.system.libpath", oozieUseSystemLibpath.toString());
+        writer.end()
+                  .end()
+                .end()
+              .end()
+              .flush();
+        LOGGER.debug("Coordinator written: {}", name);
     }
 
-    private XMLBuilder2 property(String name, String value) {
-        return XMLBuilder2.create("property").e("name").t(name).up()
-            .e("value").t(value).up()
-            .up();
+    private static void property(OozieXmlWriter writer, String name, String value) throws IOException {
+        writer.start("property")
+                .element("name", name)
+                .element("value", value)
+              .end();
     }
 }
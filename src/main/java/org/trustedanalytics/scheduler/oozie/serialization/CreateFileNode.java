@@ -15,9 +15,9 @@
  */
 package org.trustedanalytics.scheduler.oozie.serialization;
 
-import com.jamesmurty.utils.XMLBuilder2;
 import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance.WorkflowInstanceBuilder;
 
+import java.io.IOException;
 import java.util.Objects;
 
 public class CreateFileNode implements XmlNode {
@@ -37,19 +37,14 @@ public class CreateFileNode implements XmlNode {
     }
 
     @Override
-    public XMLBuilder2 asXmlBuilder() {
-        return XMLBuilder2.create("action")
-                          .a("name",name)
-                            .e("fs")
-                              .e("touchz")
-                                .a("path",path)
-                            .up()
-                          .up()
-                            .e("ok")
-                              .a("to", then)
-                            .up()
-                          .e("error")
-                            .a("to","fail");
+    public void writeXml(OozieXmlWriter writer) throws IOException {
+        writer.start("action").attribute("name", name)
+                .start("fs")
+                  .start("touchz").attribute("path", path).end()
+                .end()
+                .start("ok").attribute("to", then).end()
+                .start("error").attribute("to", "fail").end()
+              .end();
     }
 
     public static class WorkflowCreateFileBuilder implements BuilderNode {
@@ -15,8 +15,9 @@
  */
 package org.trustedanalytics.scheduler.oozie.serialization;
 
-import com.jamesmurty.utils.XMLBuilder2;
 import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance.WorkflowInstanceBuilder;
+
+import java.io.IOException;
 import java.util.Objects;
 
 public class DecisionNode implements XmlNode {
@@ -38,11 +39,13 @@ public class DecisionNode implements XmlNode {
     }
 
     @Override
-    public XMLBuilder2 asXmlBuilder() {
-        return XMLBuilder2.create("decision").a("name",name)
-                .e("switch")
-                .e("case").a("to", then).t(condition).up()
-                .e("default").a("to", orElse).up();
+    public void writeXml(OozieXmlWriter writer) throws IOException {
+        writer.start("decision").attribute("name", name)
+                .start("switch")
+                  .start("case").attribute("to", then).text(condition).end()
+                  .start("default").attribute("to", orElse).end()
+                .end()
+              .end();
     }
 
     public static class WorkflowDecisionNodeBuilder implements BuilderNode {
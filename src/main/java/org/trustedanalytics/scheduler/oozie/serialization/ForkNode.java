@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.serialization;
+
+import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance.WorkflowInstanceBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class ForkNode implements XmlNode {
+
+    private final String name;
+    private final List<String> paths;
+
+    private ForkNode(WorkflowForkNodeBuilder builder) {
+        this.name = Objects.requireNonNull(builder.name, "name");
+        this.paths = new ArrayList<>(builder.paths);
+        if (paths.size() < 2) {
+            throw new IllegalStateException("Fork " + name + " needs at least two paths");
+        }
+    }
+
+    public static WorkflowForkNodeBuilder builder() {
+        return new WorkflowForkNodeBuilder();
+    }
+
+    @Override
+    public void writeXml(OozieXmlWriter writer) throws IOException {
+        writer.start("fork").attribute("name", name);
+        for (String path : paths) {
+            writer.start("path").attribute("start", path).end();
+        }
+        writer.end();
+    }
+
+    public static class WorkflowForkNodeBuilder implements BuilderNode {
+
+        private WorkflowInstanceBuilder parent;
+        private String name;
+        private List<String> paths = new ArrayList<>();
+
+        protected WorkflowForkNodeBuilder setParent(WorkflowInstanceBuilder parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        public WorkflowForkNodeBuilder setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public WorkflowForkNodeBuilder addPath(String start) {
+            this.paths.add(start);
+            return this;
+        }
+
+        public WorkflowInstanceBuilder and() {
+            return parent;
+        }
+
+        @Override
+        public ForkNode build() {
+            return new ForkNode(this);
+        }
+    }
+}
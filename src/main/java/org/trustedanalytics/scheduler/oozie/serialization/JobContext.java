@@ -18,9 +18,6 @@ package org.trustedanalytics.scheduler.oozie.serialization;
 import lombok.Builder;
 import lombok.Data;
 
-import java.io.IOException;
-import java.util.UUID;
-
 @Data
 @Builder
 public class JobContext {
@@ -31,7 +28,16 @@ public class JobContext {
     private String sqoopMetastore;
     private String oozieApiUrl;
 
-    public void resolveQueueName(String org) throws IOException {
-        this.queueName = org;
+    /**
+     * The context bean is shared between concurrent submissions, so org specific values are set on a copy.
+     */
+    public JobContext forOrg(String org) {
+        return JobContext.builder()
+                .queueName(org)
+                .jobTracker(jobTracker)
+                .nameNode(nameNode)
+                .sqoopMetastore(sqoopMetastore)
+                .oozieApiUrl(oozieApiUrl)
+                .build();
     }
 }
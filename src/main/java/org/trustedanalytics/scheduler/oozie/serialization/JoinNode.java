@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.serialization;
+
+import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance.WorkflowInstanceBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+public class JoinNode implements XmlNode {
+
+    private final String name;
+    private final String then;
+
+    private JoinNode(WorkflowJoinNodeBuilder builder) {
+        this.name = Objects.requireNonNull(builder.name, "name");
+        this.then = Objects.requireNonNull(builder.then, "then");
+    }
+
+    public static WorkflowJoinNodeBuilder builder() {
+        return new WorkflowJoinNodeBuilder();
+    }
+
+    @Override
+    public void writeXml(OozieXmlWriter writer) throws IOException {
+        writer.start("join").attribute("name", name).attribute("to", then).end();
+    }
+
+    public static class WorkflowJoinNodeBuilder implements BuilderNode {
+
+        private WorkflowInstanceBuilder parent;
+        private String name;
+        private String then;
+
+        protected WorkflowJoinNodeBuilder setParent(WorkflowInstanceBuilder parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        public WorkflowJoinNodeBuilder setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public WorkflowJoinNodeBuilder then(String then) {
+            this.then = then;
+            return this;
+        }
+
+        public WorkflowInstanceBuilder and() {
+            return parent;
+        }
+
+        @Override
+        public JoinNode build() {
+            return new JoinNode(this);
+        }
+    }
+}
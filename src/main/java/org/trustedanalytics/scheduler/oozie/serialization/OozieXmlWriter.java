@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.serialization;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Streaming writer for oozie application documents.
+ *
+ * Output is byte for byte what the DOM serializer produced for these documents with the indent-amount 2 and
+ * omit-xml-declaration settings: UTF-8, elements with element content indented by two spaces, text only elements
+ * kept on one line, empty elements collapsed and a trailing line break after the root element.
+ */
+public final class OozieXmlWriter implements Flushable {
+
+    private static final int INDENT = 2;
+
+    private final Writer out;
+    private final Deque<Element> open = new ArrayDeque<>();
+    private boolean startTagOpen;
+
+    public OozieXmlWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public OozieXmlWriter start(String name) throws IOException {
+        final Element parent = open.peek();
+        if (parent != null) {
+            closeStartTag();
+            parent.hasChildren = true;
+            newLine(open.size());
+        }
+        out.write('<');
+        out.write(name);
+        open.push(new Element(name));
+        startTagOpen = true;
+        return this;
+    }
+
+    public OozieXmlWriter attribute(String name, String value) throws IOException {
+        if (!startTagOpen) {
+            throw new IllegalStateException("Attribute " + name + " written outside of a start tag");
+        }
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+        escape(value, true);
+        out.write('"');
+        return this;
+    }
+
+    public OozieXmlWriter text(String text) throws IOException {
+        final Element current = open.peek();
+        if (current == null) {
+            throw new IllegalStateException("Text written outside of the root element");
+        }
+        if (text == null || text.isEmpty()) {
+            return this;
+        }
+        closeStartTag();
+        current.hasText = true;
+        escape(text, false);
+        return this;
+    }
+
+    /**
+     * Shortcut for an element holding a single text node.
+     */
+    public OozieXmlWriter element(String name, String text) throws IOException {
+        return start(name).text(text).end();
+    }
+
+    public OozieXmlWriter end() throws IOException {
+        final Element current = open.pop();
+        if (startTagOpen) {
+            out.write("/>");
+            startTagOpen = false;
+        } else {
+            if (current.hasChildren && !current.hasText) {
+                newLine(open.size());
+            }
+            out.write("</");
+            out.write(current.name);
+            out.write('>');
+        }
+        if (open.isEmpty()) {
+            out.write('\n');
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            out.write('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void newLine(int depth) throws IOException {
+        out.write('\n');
+        for (int i = 0; i < depth * INDENT; i++) {
+            out.write(' ');
+        }
+    }
+
+    private void escape(String value, boolean attribute) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int from = 0;
+        int i = 0;
+        while (i < value.length()) {
+            final int codePoint = value.codePointAt(i);
+            final int next = i + Character.charCount(codePoint);
+            // supplementary characters are written as character references
+            final String replacement = Character.isSupplementaryCodePoint(codePoint)
+                    ? "&#" + codePoint + ';'
+                    : replacement(value.charAt(i), attribute);
+            if (replacement != null) {
+                out.write(value, from, i - from);
+                out.write(replacement);
+                from = next;
+            }
+            i = next;
+        }
+        out.write(value, from, value.length() - from);
+    }
+
+    private static String replacement(char c, boolean attribute) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return attribute ? "&quot;" : null;
+            case '\n':
+                return attribute ? "&#10;" : null;
+            case '\r':
+                return "&#13;";
+            case '\t':
+                return attribute ? "&#9;" : null;
+            default:
+                return c < ' ' || (!attribute && c >= '\u007f' && c <= '\u009f') ? "&#" + (int) c + ';' : null;
+        }
+    }
+
+    private static final class Element {
+        private final String name;
+        private boolean hasChildren;
+        private boolean hasText;
+
+        private Element(String name) {
+            this.name = name;
+        }
+    }
+}
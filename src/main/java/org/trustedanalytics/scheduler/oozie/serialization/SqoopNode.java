@@ -15,9 +15,9 @@
  */
 package org.trustedanalytics.scheduler.oozie.serialization;
 
-import com.jamesmurty.utils.XMLBuilder2;
 import org.trustedanalytics.scheduler.oozie.serialization.WorkflowInstance.WorkflowInstanceBuilder;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -49,31 +49,32 @@ public class SqoopNode implements XmlNode {
     }
 
     @Override
-    public XMLBuilder2 asXmlBuilder() {
-            XMLBuilder2 builder =  XMLBuilder2.create("action").a("name", name)
-                    .e("sqoop").ns("uri:oozie:sqoop-action:0.4")
-                    .e("job-tracker").t(jobContext.getJobTracker()).up()
-                    .e("name-node").t(jobContext.getNameNode()).up()
-                    .e("prepare").up()
-                     .importXMLBuilder(configurationXml())
-                    .e("command").t(command).up();
-            for (String file : files) {
-                builder.e("file").t(file).up();
-            }
-            builder.up().up().e("ok").a("to",then).up()
-                    .e("error").a("to", onError);
-        return builder;
+    public void writeXml(OozieXmlWriter writer) throws IOException {
+        writer.start("action").attribute("name", name)
+                .start("sqoop").attribute("xmlns", "uri:oozie:sqoop-action:0.4")
+                  .element("job-tracker", jobContext.getJobTracker())
+                  .element("name-node", jobContext.getNameNode())
+                  .start("prepare").end();
+        writeConfiguration(writer);
+        writer.element("command", command);
+        for (String file : files) {
+            writer.element("file", file);
+        }
+        writer.end()
+                .start("ok").attribute("to", then).end()
+                .start("error").attribute("to", onError).end()
+              .end();
     }
 
-    private XMLBuilder2 configurationXml() {
-        XMLBuilder2 configBuilder = XMLBuilder2.create("configuration");
+    private void writeConfiguration(OozieXmlWriter writer) throws IOException {
+        writer.start("configuration");
         for (Map.Entry<String,String> entry: properties.entrySet()) {
-            configBuilder.e("property").e("name").t(entry.getKey()).up()
-                                        .e("value").t(entry.getValue()).up()
-                        .up()
-                    .up();
+            writer.start("property")
+                    .element("name", entry.getKey())
+                    .element("value", entry.getValue())
+                  .end();
         }
-        return configBuilder;
+        writer.end();
     }
 
     public static class WorkflowActionNodeBuilder implements BuilderNode {
@@ -126,6 +127,11 @@ public class SqoopNode implements XmlNode {
             return this;
         }
 
+        public WorkflowActionNodeBuilder addFiles(List<String> filePaths) {
+            this.files.addAll(filePaths);
+            return this;
+        }
+
         public WorkflowInstanceBuilder and() {
             return parent;
         }
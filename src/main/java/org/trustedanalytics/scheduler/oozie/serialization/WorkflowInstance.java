@@ -15,21 +15,20 @@
  */
 package org.trustedanalytics.scheduler.oozie.serialization;
 
-import com.jamesmurty.utils.XMLBuilder2;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trustedanalytics.scheduler.oozie.serialization.DeleteFileNode.WorkflowDeleteFileBuilder;
 import org.trustedanalytics.scheduler.oozie.serialization.SqoopNode.WorkflowActionNodeBuilder;
 import org.trustedanalytics.scheduler.oozie.serialization.CreateFileNode.WorkflowCreateFileBuilder;
 import org.trustedanalytics.scheduler.oozie.serialization.DecisionNode.WorkflowDecisionNodeBuilder;
+import org.trustedanalytics.scheduler.oozie.serialization.ForkNode.WorkflowForkNodeBuilder;
+import org.trustedanalytics.scheduler.oozie.serialization.JoinNode.WorkflowJoinNodeBuilder;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Properties;
 
 public class WorkflowInstance {
 
@@ -42,15 +41,6 @@ public class WorkflowInstance {
 
     private List<BuilderNode> actionNodes = new ArrayList<>();
 
-    private static final Properties xmlProperties = new Properties();
-
-    static {
-        xmlProperties.put(javax.xml.transform.OutputKeys.OMIT_XML_DECLARATION, "yes");
-        xmlProperties.put(javax.xml.transform.OutputKeys.METHOD, "xml");
-        xmlProperties.put(javax.xml.transform.OutputKeys.INDENT, "yes");
-        xmlProperties.put("{http://xml.apache.org/xslt}indent-amount", "2");
-    };
-
     private WorkflowInstance(WorkflowInstanceBuilder builder) {
         this.actionNodes = new ArrayList<>(builder.actionNodes);
         this.errorMsg = builder.errorMsg;
@@ -63,20 +53,23 @@ public class WorkflowInstance {
         return new WorkflowInstanceBuilder(jobContext);
     }
 
-    public InputStream asStream() {
-        XMLBuilder2 builder = XMLBuilder2.create("workflow-app");
-        builder.a("name", workflowName)
-                .ns("uri:oozie:workflow:0.4")
-                .e("start").a("to", startNodeName).up();
+    /**
+     * Writes workflow.xml straight into the given stream, the stream is flushed but not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        OozieXmlWriter writer = new OozieXmlWriter(out);
+        writer.start("workflow-app").attribute("xmlns", "uri:oozie:workflow:0.4").attribute("name", workflowName)
+                .start("start").attribute("to", startNodeName).end();
         for (BuilderNode a : actionNodes) {
-            builder.importXMLBuilder(a.build().asXmlBuilder());
+            a.build().writeXml(writer);
         }
-        builder.e("kill").a("name",killNodeName)
-                  .e("message").t(errorMsg).up()
-                  .up().e("end").a("name","end");
-        String xml =  builder.asString(xmlProperties);
-        LOGGER.debug("Xml created: {}", xml);
-        return IOUtils.toInputStream(xml, StandardCharsets.UTF_8);
+        writer.start("kill").attribute("name", killNodeName)
+                  .element("message", errorMsg)
+                .end()
+                .start("end").attribute("name", "end").end()
+              .end()
+              .flush();
+        LOGGER.debug("Workflow written: {}", workflowName);
     }
 
     public static class WorkflowInstanceBuilder {
@@ -104,10 +97,21 @@ public class WorkflowInstance {
         }
 
         public WorkflowDecisionNodeBuilder fileExistDecision(String flagPath) {
+            return decision(String.format("${fs:exists(\"%s\") eq true}", flagPath));
+        }
+
+        /**
+         * Checks the file named by the given job configuration property, the property must be a valid EL variable name.
+         */
+        public WorkflowDecisionNodeBuilder fileExistDecisionOnProperty(String flagPathProperty) {
+            return decision(String.format("${fs:exists(%s) eq true}", flagPathProperty));
+        }
+
+        private WorkflowDecisionNodeBuilder decision(String condition) {
             WorkflowDecisionNodeBuilder childBuilder = DecisionNode.builder()
                 .setParent(this)
-                .setCondition(String.format("${fs:exists(\"%s\") eq true}", flagPath));
-                actionNodes.add(childBuilder);
+                .setCondition(condition);
+            actionNodes.add(childBuilder);
             return childBuilder;
         }
 
@@ -134,6 +138,18 @@ public class WorkflowInstance {
             return deleteFileBuilder;
         }
 
+        public WorkflowForkNodeBuilder fork() {
+            WorkflowForkNodeBuilder forkBuilder = ForkNode.builder().setParent(this);
+            actionNodes.add(forkBuilder);
+            return forkBuilder;
+        }
+
+        public WorkflowJoinNodeBuilder join() {
+            WorkflowJoinNodeBuilder joinBuilder = JoinNode.builder().setParent(this);
+            actionNodes.add(joinBuilder);
+            return joinBuilder;
+        }
+
         public WorkflowInstanceBuilder setName(String workflowName) {
             this.workflowName = workflowName;
             return this;
@@ -15,10 +15,10 @@
  */
 package org.trustedanalytics.scheduler.oozie.serialization;
 
-import com.jamesmurty.utils.XMLBuilder2;
+import java.io.IOException;
 
 @FunctionalInterface
 public interface XmlNode {
 
-    XMLBuilder2 asXmlBuilder();
+    void writeXml(OozieXmlWriter writer) throws IOException;
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.rest;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.config.HttpClientConfiguration;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single HttpClient shared by all outgoing Oozie calls, so connections and TLS sessions are reused
+ * between requests. The client carries no credentials; those are supplied per request by
+ * {@link PerUserRequestFactory}.
+ */
+@Component
+public class HttpClientPool implements PublicMetrics {
+
+    private final MeteredConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final HttpClientConfiguration configuration;
+
+    @Autowired
+    public HttpClientPool(HttpClientConfiguration configuration, SSLContext sslContext) {
+        this.configuration = configuration;
+        this.connectionManager = new MeteredConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext))
+                .build());
+        connectionManager.setMaxTotal(configuration.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(configuration.getMaxPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(configuration.getConnectTimeoutMs())
+                .setSocketTimeout(configuration.getReadTimeoutMs())
+                .setConnectionRequestTimeout(configuration.getLeaseTimeoutMs())
+                .build();
+
+        this.httpClient = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(configuration.getKeepAliveMs()))
+                .build();
+    }
+
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Scheduled(fixedDelayString = "${http.client.idle-eviction-interval-ms:10000}")
+    public void evictIdleConnections() {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(configuration.getIdleTimeoutMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return Arrays.asList(
+                new Metric<>("gauge.http.pool.leased", stats.getLeased()),
+                new Metric<>("gauge.http.pool.available", stats.getAvailable()),
+                new Metric<>("gauge.http.pool.pending", stats.getPending()),
+                new Metric<>("gauge.http.pool.saturation", 100.0 * stats.getLeased() / stats.getMax()),
+                new Metric<>("gauge.http.pool.lease.time.avg", connectionManager.getAverageLeaseMillis()),
+                new Metric<>("gauge.http.pool.lease.time.max", connectionManager.getMaxLeaseMillis()),
+                new Metric<>("counter.http.pool.leases", connectionManager.getLeases()),
+                new Metric<>("counter.http.pool.lease.timeouts", connectionManager.getLeaseTimeouts()));
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long maxKeepAliveMs) {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAliveMs) : maxKeepAliveMs;
+        };
+    }
+}
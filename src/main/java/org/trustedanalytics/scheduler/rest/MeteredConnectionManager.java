@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.rest;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool wrapper that records how long callers wait to lease a connection.
+ */
+class MeteredConnectionManager implements HttpClientConnectionManager {
+
+    private final PoolingHttpClientConnectionManager pool;
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong leaseTimeouts = new AtomicLong();
+    private final AtomicLong totalLeaseNanos = new AtomicLong();
+    private final AtomicLong maxLeaseNanos = new AtomicLong();
+
+    MeteredConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+        this.pool = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+    }
+
+    void setMaxTotal(int maxTotal) {
+        pool.setMaxTotal(maxTotal);
+    }
+
+    void setDefaultMaxPerRoute(int maxPerRoute) {
+        pool.setDefaultMaxPerRoute(maxPerRoute);
+    }
+
+    PoolStats getTotalStats() {
+        return pool.getTotalStats();
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest request = pool.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                final long start = System.nanoTime();
+                try {
+                    return request.get(timeout, tunit);
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeouts.incrementAndGet();
+                    throw e;
+                } finally {
+                    recordLease(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+        pool.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context)
+            throws IOException {
+        pool.connect(conn, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        pool.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        pool.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+        pool.closeIdleConnections(idleTime, timeUnit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        pool.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    long getLeases() {
+        return leases.get();
+    }
+
+    long getLeaseTimeouts() {
+        return leaseTimeouts.get();
+    }
+
+    double getAverageLeaseMillis() {
+        long count = leases.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLeaseNanos.get()) / 1000.0 / count;
+    }
+
+    double getMaxLeaseMillis() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLeaseNanos.get()) / 1000.0;
+    }
+
+    private void recordLease(long nanos) {
+        leases.incrementAndGet();
+        totalLeaseNanos.addAndGet(nanos);
+        maxLeaseNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
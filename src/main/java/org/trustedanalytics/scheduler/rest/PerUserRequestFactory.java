@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.rest;
+
+import org.apache.http.auth.AuthSchemeProvider;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Lookup;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+/**
+ * Applies credentials to every request instead of baking them into the client. The user is also set as
+ * connection state, so pooled connections authenticated for one user are never leased to another.
+ */
+class PerUserRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final String user;
+    private final CredentialsProvider credentialsProvider;
+    private final Lookup<AuthSchemeProvider> authSchemeRegistry;
+
+    PerUserRequestFactory(HttpClient httpClient, String user, CredentialsProvider credentialsProvider,
+                          Lookup<AuthSchemeProvider> authSchemeRegistry) {
+        super(httpClient);
+        this.user = user;
+        this.credentialsProvider = credentialsProvider;
+        this.authSchemeRegistry = authSchemeRegistry;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(credentialsProvider);
+        context.setUserToken(user);
+        if (authSchemeRegistry != null) {
+            context.setAuthSchemeRegistry(authSchemeRegistry);
+        }
+        return context;
+    }
+
+    @Override
+    public void destroy() {
+        // the underlying client is shared and closed by HttpClientPool
+    }
+}
@@ -17,22 +17,20 @@ package org.trustedanalytics.scheduler.rest;
 
 
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.HttpClient;
+import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.config.Lookup;
 import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.auth.SPNegoSchemeFactory;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.kerberos.client.KerberosRestTemplate;
@@ -41,16 +39,12 @@ import org.springframework.security.oauth2.provider.authentication.OAuth2Authent
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.trustedanalytics.hadoop.config.client.oauth.TapOauthToken;
-import org.trustedanalytics.hadoop.kerberos.KrbLoginManager;
-import org.trustedanalytics.hadoop.kerberos.KrbLoginManagerFactory;
 import org.trustedanalytics.scheduler.config.ClouderaConfiguration;
 import org.trustedanalytics.scheduler.filesystem.HdfsConfigProvider;
+import org.trustedanalytics.scheduler.security.KerberosSubjectCache;
 import sun.security.krb5.PrincipalName;
 
-import javax.net.ssl.SSLContext;
 import javax.security.auth.login.LoginException;
-import java.io.IOException;
-import java.security.GeneralSecurityException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -59,17 +53,26 @@ public class RestOperationsFactory {
 
     private static final String KRB5_CREDENTIALS_CACHE_DIR = "/tmp/";
     private static final Logger LOGGER = LoggerFactory.getLogger(RestOperationsFactory.class);
+    private static final Lookup<AuthSchemeProvider> SPNEGO_AUTH_SCHEMES = RegistryBuilder.<AuthSchemeProvider> create()
+            .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory(true)).build();
+
     private HdfsConfigProvider hdfsConfigProvider;
 
     private final ClouderaConfiguration configuration;
 
-    private final SSLContext sslContext;
+    private final HttpClientPool httpClientPool;
+
+    private final KerberosSubjectCache kerberosSubjectCache;
+
+    private final Supplier<RestTemplate> restTemplate = Suppliers.memoize(this::createRestTemplate);
 
     @Autowired
-    public RestOperationsFactory(HdfsConfigProvider configProvider, ClouderaConfiguration configuration, SSLContext sslContext) throws IOException, GeneralSecurityException {
+    public RestOperationsFactory(HdfsConfigProvider configProvider, ClouderaConfiguration configuration,
+                                 HttpClientPool httpClientPool, KerberosSubjectCache kerberosSubjectCache) {
         this.configuration = configuration;
         hdfsConfigProvider = configProvider;
-        this.sslContext = sslContext;
+        this.httpClientPool = httpClientPool;
+        this.kerberosSubjectCache = kerberosSubjectCache;
     }
 
     static String ticketCacheLocation(String princName) {
@@ -86,10 +89,8 @@ public class RestOperationsFactory {
     public RestTemplate getRestTemplate()  {
         if (hdfsConfigProvider.isKerberosEnabled()) {
             try {
-                KrbLoginManager loginManager =
-                        KrbLoginManagerFactory.getInstance().getKrbLoginManagerInstance(hdfsConfigProvider.getKdc(), hdfsConfigProvider.getRealm());
                 TapOauthToken jwtToken = new TapOauthToken(getOAuthToken());
-                loginManager.loginWithJWTtoken(jwtToken);
+                kerberosSubjectCache.login(jwtToken);
 
                 return createKerberosRestTemplate(jwtToken.getUserId());
             } catch (LoginException e) {
@@ -97,22 +98,14 @@ public class RestOperationsFactory {
                 throw new IllegalStateException("Unable to authenticate in kerberos");
             }
         } else {
-            LOGGER.warn("No valid Kerberos configuration detected, creating standard RestTemplate");
-            return createRestTemplate();
+            LOGGER.debug("No valid Kerberos configuration detected, using standard RestTemplate");
+            return restTemplate.get();
         }
     }
 
     private RestTemplate createRestTemplate() {
-        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        credentialsProvider.setCredentials(AuthScope.ANY,
-                new UsernamePasswordCredentials(configuration.getUser(), configuration.getPassword()));
-
-        SSLConnectionSocketFactory factory = new SSLConnectionSocketFactory(sslContext);
-
-        HttpClient httpClient = HttpClientBuilder.create().setSSLSocketFactory(factory)
-                .setDefaultCredentialsProvider(credentialsProvider).build();
-
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        return new RestTemplate(new PerUserRequestFactory(httpClientPool.getHttpClient(),
+                configuration.getUser(), technicalUserCredentials(), null));
     }
 
     private RestTemplate createKerberosRestTemplate(String userId) {
@@ -120,24 +113,17 @@ public class RestOperationsFactory {
         Map<String, Object> options = new HashMap<>();
         options.put("ticketCache", ticketCacheLocation(userId + PrincipalName.NAME_REALM_SEPARATOR_STR
                 + System.getProperty(HdfsConfigProvider.KRB5_REALM)));
-        RestTemplate template =  new KerberosRestTemplate("", userId, options);
+        RestTemplate template = new KerberosRestTemplate(options, httpClientPool.getHttpClient());
+        template.setRequestFactory(new PerUserRequestFactory(httpClientPool.getHttpClient(),
+                userId, technicalUserCredentials(), SPNEGO_AUTH_SCHEMES));
+        return template;
+    }
 
+    private CredentialsProvider technicalUserCredentials() {
         BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         credentialsProvider.setCredentials(AuthScope.ANY,
                 new UsernamePasswordCredentials(configuration.getUser(), configuration.getPassword()));
-        HttpClientBuilder builder = HttpClientBuilder.create();
-        Lookup<AuthSchemeProvider> authSchemeRegistry = RegistryBuilder.<AuthSchemeProvider> create()
-                .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory(true)).build();
-        builder.setDefaultAuthSchemeRegistry(authSchemeRegistry);
-        builder.setDefaultCredentialsProvider(credentialsProvider);
-
-        SSLConnectionSocketFactory factory = new SSLConnectionSocketFactory(sslContext);
-        builder.setSSLSocketFactory(factory);
-        CloseableHttpClient httpClient = builder.build();
-
-        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        template.setRequestFactory(requestFactory);
-        return template;
+        return credentialsProvider;
     }
 
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.hadoop.config.client.oauth.TapOauthToken;
+import org.trustedanalytics.hadoop.kerberos.KrbLoginManagerFactory;
+import org.trustedanalytics.scheduler.filesystem.HdfsConfigProvider;
+
+import javax.security.auth.Subject;
+import javax.security.auth.kerberos.KerberosTicket;
+import javax.security.auth.login.LoginException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps Kerberos subjects obtained from the KDC per user id, so that consecutive calls of the same user
+ * reuse the ticket instead of logging in again. An entry is renewed when its ticket is about to expire
+ * and the least recently used entries are dropped once the cache is full.
+ */
+@Component
+public class KerberosSubjectCache implements PublicMetrics {
+
+    private final KdcLogin kdcLogin;
+    private final Cache<String, CachedSubject> subjects;
+    private final long refreshBeforeExpiryMillis;
+    private final long defaultTtlMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong logins = new AtomicLong();
+    private final AtomicLong totalLoginMillis = new AtomicLong();
+    private final AtomicLong maxLoginMillis = new AtomicLong();
+
+    @Autowired
+    public KerberosSubjectCache(HdfsConfigProvider hdfsConfigProvider,
+                                @Value("${kerberos.subject-cache.max-size:1000}") long maxSize,
+                                @Value("${kerberos.subject-cache.refresh-before-expiry-seconds:300}") long refreshBeforeExpirySeconds,
+                                @Value("${kerberos.subject-cache.default-ttl-seconds:3600}") long defaultTtlSeconds) {
+        this(jwtToken -> KrbLoginManagerFactory.getInstance()
+                        .getKrbLoginManagerInstance(hdfsConfigProvider.getKdc(), hdfsConfigProvider.getRealm())
+                        .loginWithJWTtoken(jwtToken),
+                maxSize, refreshBeforeExpirySeconds, defaultTtlSeconds);
+    }
+
+    KerberosSubjectCache(KdcLogin kdcLogin, long maxSize, long refreshBeforeExpirySeconds, long defaultTtlSeconds) {
+        this.kdcLogin = kdcLogin;
+        this.subjects = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.refreshBeforeExpiryMillis = TimeUnit.SECONDS.toMillis(refreshBeforeExpirySeconds);
+        this.defaultTtlMillis = TimeUnit.SECONDS.toMillis(defaultTtlSeconds);
+    }
+
+    public Subject login(TapOauthToken jwtToken) throws LoginException {
+        final String userId = jwtToken.getUserId();
+        CachedSubject cached = subjects.getIfPresent(userId);
+        if (cached != null && cached.isFresh()) {
+            hits.incrementAndGet();
+            return cached.subject;
+        }
+        if (cached != null) {
+            subjects.asMap().remove(userId, cached);
+        }
+
+        try {
+            return subjects.get(userId, () -> {
+                misses.incrementAndGet();
+                return new CachedSubject(loginInKdc(jwtToken));
+            }).subject;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LoginException) {
+                throw (LoginException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to authenticate in kerberos", e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw new IllegalStateException("Unable to authenticate in kerberos", e.getCause());
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long requests = hits.get() + misses.get();
+        long loginCount = logins.get();
+        return Arrays.asList(
+                new Metric<>("gauge.kerberos.subject.cache.size", subjects.size()),
+                new Metric<>("gauge.kerberos.subject.cache.hit.ratio", requests == 0 ? 0.0 : (double) hits.get() / requests),
+                new Metric<>("counter.kerberos.login", loginCount),
+                new Metric<>("gauge.kerberos.login.time.avg", loginCount == 0 ? 0.0 : (double) totalLoginMillis.get() / loginCount),
+                new Metric<>("gauge.kerberos.login.time.max", maxLoginMillis.get()));
+    }
+
+    private Subject loginInKdc(TapOauthToken jwtToken) throws LoginException {
+        final long start = System.currentTimeMillis();
+        try {
+            return kdcLogin.login(jwtToken);
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+            logins.incrementAndGet();
+            totalLoginMillis.addAndGet(duration);
+            maxLoginMillis.accumulateAndGet(duration, Math::max);
+        }
+    }
+
+    @FunctionalInterface
+    interface KdcLogin {
+        Subject login(TapOauthToken jwtToken) throws LoginException;
+    }
+
+    private final class CachedSubject {
+        private final Subject subject;
+        private final long refreshAt;
+
+        private CachedSubject(Subject subject) {
+            this.subject = subject;
+            this.refreshAt = ticketEndTime(subject) - refreshBeforeExpiryMillis;
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() < refreshAt;
+        }
+
+        private long ticketEndTime(Subject subject) {
+            return subject.getPrivateCredentials(KerberosTicket.class)
+                    .stream()
+                    .filter(ticket -> ticket.getEndTime() != null)
+                    .mapToLong(ticket -> ticket.getEndTime().getTime())
+                    .min()
+                    .orElse(System.currentTimeMillis() + defaultTtlMillis);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.submission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchJobResult {
+
+    private String name;
+    private String jobId;
+    private String error;
+
+    public static BatchJobResult submitted(String name, String jobId) {
+        return new BatchJobResult(name, jobId, null);
+    }
+
+    public static BatchJobResult failed(String name, String error) {
+        return new BatchJobResult(name, null, error);
+    }
+}
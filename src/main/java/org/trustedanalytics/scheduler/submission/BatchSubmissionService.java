@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.submission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.client.OozieJobId;
+import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpace;
+import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpaceFactory;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.oozie.OozieService;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatch;
+import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Submits many Sqoop imports of one organization at once. All jobs share a single org space and are sent
+ * to Oozie with bounded parallelism; a failure of one job does not stop the others.
+ */
+@Component
+public class BatchSubmissionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSubmissionService.class);
+
+    private final OozieService oozieService;
+    private final OrgSpecificSpaceFactory orgSpecificSpaceFactory;
+    private final OrgJobIds orgJobIds;
+    private final ExecutorService executor;
+
+    @Autowired
+    public BatchSubmissionService(OozieService oozieService, OrgSpecificSpaceFactory orgSpecificSpaceFactory,
+                                  OrgJobIds orgJobIds, @Value("${submission.batch.parallelism:8}") int parallelism) {
+        this.oozieService = oozieService;
+        this.orgSpecificSpaceFactory = orgSpecificSpaceFactory;
+        this.orgJobIds = orgJobIds;
+        this.executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(parallelism));
+    }
+
+    public BatchSubmissionResult submit(SqoopImportBatch batch, String org) throws IOException {
+        final BatchSubmissionResult result;
+        try (OrgSpecificSpace space = orgSpecificSpaceFactory.getOrgSpecificSpace(org)) {
+            final List<CompletableFuture<BatchJobResult>> workflows = orEmpty(batch.getWorkflows())
+                    .stream()
+                    .map(job -> submit(job.getName(), () -> oozieService.sqoopImportJob(job, org, space)))
+                    .collect(Collectors.toList());
+            final List<CompletableFuture<BatchJobResult>> coordinated = orEmpty(batch.getCoordinated())
+                    .stream()
+                    .map(job -> submit(job.getName(), () -> oozieService.sqoopScheduledImportJob(job, org, space)))
+                    .collect(Collectors.toList());
+
+            result = new BatchSubmissionResult(join(workflows), join(coordinated));
+        }
+
+        final List<OozieJobEntity> entities = Stream.concat(result.getWorkflows().stream(), result.getCoordinated().stream())
+                .filter(job -> job.getJobId() != null)
+                .map(job -> new OozieJobEntity(job.getJobId(), org))
+                .collect(Collectors.toList());
+        orgJobIds.saveAll(entities);
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<BatchJobResult> submit(String name, Callable<OozieJobId> submission) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return BatchJobResult.submitted(name, submission.call().getId());
+            } catch (Exception e) {
+                LOGGER.error("Submission of job " + name + " failed", e);
+                return BatchJobResult.failed(name, e.getMessage());
+            }
+        }, executor);
+    }
+
+    private static <T> List<T> orEmpty(List<T> jobs) {
+        return jobs == null ? Collections.emptyList() : jobs;
+    }
+
+    private static List<BatchJobResult> join(List<CompletableFuture<BatchJobResult>> results) {
+        return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.submission;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+/**
+ * Ticket of a job accepted for asynchronous submission. Status fields are written by the submission
+ * worker and read by request threads.
+ */
+@Data
+public class JobSubmission {
+
+    private final String id;
+    @JsonIgnore
+    private final String org;
+    private volatile SubmissionStatus status = SubmissionStatus.QUEUED;
+    private volatile String jobId;
+    private volatile String error;
+    private String statusUrl;
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.submission;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.trustedanalytics.scheduler.client.OozieJobId;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs HDFS and Oozie steps of job submissions on a bounded pool, off the servlet threads. When both
+ * the workers and the queue are busy new submissions are rejected, which is reported as 503 to let
+ * clients back off. Tickets are kept for a limited time after they were created.
+ */
+@Component
+public class JobSubmissionService implements PublicMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobSubmissionService.class);
+
+    private final OrgJobIds orgJobIds;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, JobSubmission> submissions;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public JobSubmissionService(OrgJobIds orgJobIds,
+                                @Value("${submission.workers:8}") int workers,
+                                @Value("${submission.queue-capacity:100}") int queueCapacity,
+                                @Value("${submission.ticket-ttl-minutes:60}") long ticketTtlMinutes) {
+        this.orgJobIds = orgJobIds;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        this.submissions = CacheBuilder.newBuilder()
+                .expireAfterWrite(ticketTtlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Queues the submission, running it with the security context of the calling request.
+     *
+     * @throws RejectedExecutionException when the submission queue is full
+     */
+    public JobSubmission submit(String org, Callable<OozieJobId> submission) {
+        final JobSubmission ticket = new JobSubmission(UUID.randomUUID().toString(), org);
+        submissions.put(ticket.getId(), ticket);
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(ticket, submission)));
+        } catch (RejectedExecutionException e) {
+            submissions.invalidate(ticket.getId());
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Too many pending job submissions, try again later", e);
+        }
+        return ticket;
+    }
+
+    public Optional<JobSubmission> get(String id, String org) {
+        return Optional.ofNullable(submissions.getIfPresent(id))
+                .filter(ticket -> ticket.getOrg().equals(org));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("gauge.submission.active", executor.getActiveCount()),
+                new Metric<>("gauge.submission.queued", executor.getQueue().size()),
+                new Metric<>("counter.submission.completed", executor.getCompletedTaskCount()),
+                new Metric<>("counter.submission.rejected", rejected.get()));
+    }
+
+    private void run(JobSubmission ticket, Callable<OozieJobId> submission) {
+        ticket.setStatus(SubmissionStatus.RUNNING);
+        try {
+            OozieJobId jobId = submission.call();
+            orgJobIds.save(new OozieJobEntity(jobId.getId(), ticket.getOrg()));
+            ticket.setJobId(jobId.getId());
+            ticket.setStatus(SubmissionStatus.SUBMITTED);
+        } catch (Exception e) {
+            LOGGER.error("Submission " + ticket.getId() + " failed", e);
+            ticket.setError(e.getMessage());
+            ticket.setStatus(SubmissionStatus.FAILED);
+        }
+    }
+}
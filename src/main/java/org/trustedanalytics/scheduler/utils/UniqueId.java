@@ -17,13 +17,14 @@ package org.trustedanalytics.scheduler.utils;
 
 import lombok.Getter;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 
 public class UniqueId {
 
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyMMdd-HHmmss");
+
     @Getter
     private String id;
 
@@ -40,8 +41,7 @@ public class UniqueId {
     }
 
     private String getTimestamp() {
-        DateFormat dateFormat = new SimpleDateFormat("yyMMdd-HHmmss");
-        return dateFormat.format(new Date());
+        return LocalDateTime.now().format(TIMESTAMP_FORMAT);
     }
 
 }
@@ -15,39 +15,37 @@
  */
 package org.trustedanalytics.scheduler.utils;
 
-import org.apache.hadoop.fs.Path;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpace;
 
-import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 
-
+/**
+ * Generates ids in form name-yyMMdd-HHmmss-node-counter. The node part tells application instances
+ * apart and the counter tells apart ids generated by one instance within the same second, so no
+ * locking nor checking for existing job directories is needed.
+ */
 @Component
 public class UniqueIdSupplier implements JobIdSupplier {
-    private static final Logger LOGGER = LoggerFactory.getLogger(UniqueIdSupplier.class);
-    private final static int RANDOM_ELEMENTS_COUNT = 2;
+    private final static int RANDOM_NODE_ID_LENGTH = 4;
 
+    private final String nodeId;
+    private final AtomicLong counter = new AtomicLong();
 
-    @Override
-    public synchronized  String get(String jobName, OrgSpecificSpace space) throws IOException {
-        UniqueId id = UniqueId.generate(jobName);
-        Path path = idToPath(id.getId(), space);
-        LOGGER.info("Trying path " + path);
-        String postfix = "";
-        while(space.fileExists(path)) {
-            LOGGER.info("Path already exists " + path);
-            postfix += "-" + randomAlphanumeric(RANDOM_ELEMENTS_COUNT);
-            path = new Path(path.toString() + postfix);
-        }
-        LOGGER.info("Accepted path " + path);
-        return id.getId() + postfix;
+    @Autowired
+    public UniqueIdSupplier(@Value("${job.id.node:}") String nodeId) {
+        this.nodeId = StringUtils.isEmpty(nodeId)
+                ? randomAlphanumeric(RANDOM_NODE_ID_LENGTH).toLowerCase()
+                : nodeId;
     }
 
-    private Path idToPath(String id, OrgSpecificSpace space) {
-        return space.resolveOozieDir(id,"");
+    @Override
+    public String get(String jobName, OrgSpecificSpace space) {
+        return UniqueId.generate(jobName).getId() + "-" + nodeId + "-" + counter.incrementAndGet();
     }
 }
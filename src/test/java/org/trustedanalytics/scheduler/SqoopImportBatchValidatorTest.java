@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.trustedanalytics.scheduler.oozie.jobs.OozieScheduledJobValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatch;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatchValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJobValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportValidator;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+public class SqoopImportBatchValidatorTest {
+
+    private SqoopImportBatchValidator validator;
+
+    @Before
+    public void setUp() {
+        SqoopImportJobValidator jobValidator =
+                new SqoopImportJobValidator(new SqoopImportValidator(Mockito.mock(DatabaseProvider.class)));
+        validator = new SqoopImportBatchValidator(jobValidator, Mockito.mock(OozieScheduledJobValidator.class));
+    }
+
+    @Test
+    public void should_passValidation_when_coordinatedListIsNull() {
+        SqoopImportBatch batch = new SqoopImportBatch();
+        batch.getWorkflows().add(importJob());
+        batch.setCoordinated(null);
+
+        Errors errors = validate(batch);
+
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    public void should_addError_when_jobIsNull() {
+        SqoopImportBatch batch = new SqoopImportBatch();
+        batch.getWorkflows().add(importJob());
+        batch.getWorkflows().add(null);
+        batch.getCoordinated().add(null);
+
+        Errors errors = validate(batch);
+
+        assertNotNull(errors.getFieldError("workflows[1]"));
+        assertNotNull(errors.getFieldError("coordinated[0]"));
+    }
+
+    private Errors validate(SqoopImportBatch batch) {
+        Errors errors = new BeanPropertyBindingResult(batch, "sqoopImportBatch");
+        validator.validate(batch, errors);
+        return errors;
+    }
+
+    private static SqoopImportJob importJob() {
+        SqoopImportJob job = new SqoopImportJob();
+        job.setName("test");
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        job.setSqoopImport(sqoopImport);
+        return job;
+    }
+}
@@ -15,12 +15,15 @@
  */
 package org.trustedanalytics.scheduler;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
+import org.trustedanalytics.scheduler.DatabaseProvider;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportValidator;
 
@@ -28,6 +31,7 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -38,7 +42,10 @@ public class SqoopImportValidatorTest {
 
     @Before
     public void setUp() {
-        sqoopImportValidator = new SqoopImportValidator();
+        MockEnvironment env = new MockEnvironment();
+        env.setProperty("sqoop.database.postgresql", "true");
+        env.setProperty("sqoop.database.teradata", "true");
+        sqoopImportValidator = new SqoopImportValidator(new DatabaseProvider(env, new ObjectMapper()));
     }
 
     @Test
@@ -63,4 +70,80 @@ public class SqoopImportValidatorTest {
         assertTrue(errors.hasErrors());
         assertNotNull(errors.getFieldError("checkColumn"));
     }
+
+    @Test
+    public void should_addError_when_mappersBelowOne() {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        sqoopImport.setMappers(0);
+
+        Errors errors = new BeanPropertyBindingResult(sqoopImport, "sqoopImport");
+        sqoopImportValidator.validate(sqoopImport, errors);
+
+        assertTrue(errors.hasErrors());
+        assertNotNull(errors.getFieldError("mappers"));
+    }
+
+    @Test
+    public void should_addError_when_splitByContainsWhitespace() {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        sqoopImport.setSplitBy("id --password x");
+
+        Errors errors = new BeanPropertyBindingResult(sqoopImport, "sqoopImport");
+        sqoopImportValidator.validate(sqoopImport, errors);
+
+        assertNotNull(errors.getFieldError("splitBy"));
+    }
+
+    @Test
+    public void should_passValidation_when_splitByIsSingleColumn() {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        sqoopImport.setSplitBy("id");
+
+        Errors errors = new BeanPropertyBindingResult(sqoopImport, "sqoopImport");
+        sqoopImportValidator.validate(sqoopImport, errors);
+
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    public void should_addError_when_fileFormatNotSupportedByDatabase() {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        sqoopImport.setJdbcUri("jdbc:teradata://host/DATABASE=db,DBS_PORT=1025");
+        sqoopImport.setFileFormat("Parquet");
+
+        Errors errors = new BeanPropertyBindingResult(sqoopImport, "sqoopImport");
+        sqoopImportValidator.validate(sqoopImport, errors);
+
+        assertNotNull(errors.getFieldError("fileFormat"));
+    }
+
+    @Test
+    public void should_passValidation_when_fileFormatAndCodecSupportedByDatabase() {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        sqoopImport.setJdbcUri("jdbc:postgresql://host:5432/db");
+        sqoopImport.setFileFormat("parquet");
+        sqoopImport.setCompressionCodec("snappy");
+
+        Errors errors = new BeanPropertyBindingResult(sqoopImport, "sqoopImport");
+        sqoopImportValidator.validate(sqoopImport, errors);
+
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    public void should_addError_when_compressionCodecUnknown() {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        sqoopImport.setCompressionCodec("zip");
+
+        Errors errors = new BeanPropertyBindingResult(sqoopImport, "sqoopImport");
+        sqoopImportValidator.validate(sqoopImport, errors);
+
+        assertNotNull(errors.getFieldError("compressionCodec"));
+    }
 }
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.trustedanalytics.scheduler.DatabaseProvider;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJobValidator;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SqoopMultiTableImportJobValidatorTest {
+
+    SqoopMultiTableImportJobValidator validator;
+
+    @Before
+    public void setUp() {
+        validator = new SqoopMultiTableImportJobValidator(new SqoopImportValidator(Mockito.mock(DatabaseProvider.class)));
+    }
+
+    @Test
+    public void should_passValidation_when_tablesAndImportGiven() {
+        SqoopMultiTableImportJob job = job("users", "orders");
+
+        Errors errors = validate(job);
+
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    public void should_addError_when_tableListedTwice() {
+        SqoopMultiTableImportJob job = job("users", "orders", "users");
+
+        Errors errors = validate(job);
+
+        assertNotNull(errors.getFieldError("tables[2]"));
+    }
+
+    @Test
+    public void should_passValidation_when_tableQualifiedWithSchema() {
+        SqoopMultiTableImportJob job = job("public.users", "sales.order$items");
+
+        Errors errors = validate(job);
+
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    public void should_addError_when_tableNameIsNotPlain() {
+        SqoopMultiTableImportJob job = job("users", "../users", "orders --password x", "a/b", ".hidden", "a..b");
+
+        Errors errors = validate(job);
+
+        assertNull(errors.getFieldError("tables[0]"));
+        for (int i = 1; i < 6; i++) {
+            assertNotNull(errors.getFieldError("tables[" + i + "]"));
+        }
+    }
+
+    @Test
+    public void should_addError_when_noTablesGiven() {
+        SqoopMultiTableImportJob job = job();
+
+        Errors errors = validate(job);
+
+        assertNotNull(errors.getFieldError("tables"));
+    }
+
+    @Test
+    public void should_addErrors_when_parallelismInvalidAndImportModeMissing() {
+        SqoopMultiTableImportJob job = job("users");
+        job.setParallelism(0);
+        job.getSqoopImport().setImportMode(null);
+
+        Errors errors = validate(job);
+
+        assertTrue(errors.hasErrors());
+        assertNotNull(errors.getFieldError("parallelism"));
+        assertNotNull(errors.getFieldError("sqoopImport.importMode"));
+    }
+
+    private Errors validate(SqoopMultiTableImportJob job) {
+        Errors errors = new BeanPropertyBindingResult(job, "sqoopMultiTableImportJob");
+        validator.validate(job, errors);
+        return errors;
+    }
+
+    private SqoopMultiTableImportJob job(String... tables) {
+        SqoopMultiTableImportJob job = new SqoopMultiTableImportJob();
+        job.setName("test");
+        job.setTables(Arrays.asList(tables));
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setImportMode("append");
+        job.setSqoopImport(sqoopImport);
+        return job;
+    }
+}
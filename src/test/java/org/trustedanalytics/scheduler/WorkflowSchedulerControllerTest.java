@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.trustedanalytics.scheduler.client.CoalescingOozieClient;
+import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobAction;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.client.OozieJobDetailsCache;
+import org.trustedanalytics.scheduler.client.OozieJobGraphCache;
+import org.trustedanalytics.scheduler.client.OozieJobLogStreamer;
+import org.trustedanalytics.scheduler.filtering.OozieJobFilter;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.index.OozieJobIndex;
+import org.trustedanalytics.scheduler.oozie.OozieService;
+import org.trustedanalytics.scheduler.oozie.jobs.OozieScheduledJobValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatchValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJobValidator;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJobValidator;
+import org.trustedanalytics.scheduler.submission.BatchSubmissionService;
+import org.trustedanalytics.scheduler.submission.JobSubmissionService;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorkflowSchedulerControllerTest {
+
+    private static final String PAST = "Mon, 10 Oct 2016 10:00:00 GMT";
+    private static final String FUTURE = "Sat, 10 Oct 2099 10:00:00 GMT";
+
+    private final OozieClient oozieClient = mock(OozieClient.class);
+    private WorkflowSchedulerController controller;
+
+    @Before
+    public void setUp() {
+        controller = new WorkflowSchedulerController(oozieClient, mock(OozieService.class), mock(OrgJobIds.class),
+                mock(OozieJobFilter.class), mock(WorkflowSchedulerConfigurationProvider.class),
+                mock(SqoopImportJobValidator.class), mock(OozieScheduledJobValidator.class), mock(OozieJobIndex.class),
+                mock(JobSubmissionService.class), mock(BatchSubmissionService.class), mock(SqoopImportBatchValidator.class),
+                mock(SqoopMultiTableImportJobValidator.class), new OozieJobDetailsCache(100, 0, 0),
+                mock(OozieJobGraphCache.class), mock(OozieJobLogStreamer.class), mock(CoalescingOozieClient.class));
+    }
+
+    @Test
+    public void should_returnNotModified_when_coordinatorETagMatches() {
+        when(oozieClient.getCoordinatedJobDetails("coord-1")).thenReturn(coordinator("RUNNING", PAST));
+        ResponseEntity<OozieCoordinatedJobInformation> first = getCoordinator(new MockHttpServletRequest(), new MockHttpServletResponse());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNotNull(first.getHeaders().getETag());
+        assertNull(getCoordinator(revalidation(first), response));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    }
+
+    @Test
+    public void should_changeETag_when_onlyActionStatusChanges() {
+        when(oozieClient.getCoordinatedJobDetails("coord-1"))
+                .thenReturn(coordinator("RUNNING", PAST), coordinator("SUCCEEDED", PAST));
+        ResponseEntity<OozieCoordinatedJobInformation> running = getCoordinator(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        ResponseEntity<OozieCoordinatedJobInformation> succeeded = getCoordinator(revalidation(running), new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.OK, succeeded.getStatusCode());
+        assertEquals(running.getHeaders().getLastModified(), succeeded.getHeaders().getLastModified());
+        assertNotEquals(running.getHeaders().getETag(), succeeded.getHeaders().getETag());
+    }
+
+    @Test
+    public void should_notSendFutureLastModified_when_actionTimeIsAhead() {
+        when(oozieClient.getCoordinatedJobDetails("coord-1")).thenReturn(coordinator("RUNNING", FUTURE));
+        long before = System.currentTimeMillis();
+
+        ResponseEntity<OozieCoordinatedJobInformation> response =
+                getCoordinator(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertTrue(response.getHeaders().getLastModified() <= before + 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_rejectRange_when_combinedWithGrep() {
+        controller.streamJobLog("wf-1", "bytes=0-99", Optional.empty(), Optional.empty(), Optional.of("ERROR"), false);
+    }
+
+    private ResponseEntity<OozieCoordinatedJobInformation> getCoordinator(MockHttpServletRequest request,
+                                                                          MockHttpServletResponse response) {
+        return controller.getCoordinatedJobDetails("coord-1", new ServletWebRequest(request, response));
+    }
+
+    // conditional GET as sent by browsers, with both validators of the previous response
+    private static MockHttpServletRequest revalidation(ResponseEntity<?> previous) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rest/v1/oozie/jobs/coordinated/coord-1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, previous.getHeaders().getETag());
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, previous.getHeaders().getLastModified());
+        return request;
+    }
+
+    private static OozieCoordinatedJobInformation coordinator(String actionStatus, String actionModified) {
+        OozieCoordinatedJobAction action = new OozieCoordinatedJobAction();
+        action.setId("coord-1@1");
+        action.setStatus(actionStatus);
+        action.setLastModifiedTime(actionModified);
+        OozieCoordinatedJobInformation coordinator = new OozieCoordinatedJobInformation();
+        coordinator.setCoordJobId("coord-1");
+        coordinator.setStatus("RUNNING");
+        coordinator.setLastAction(FUTURE);
+        coordinator.setActions(Collections.singletonList(action));
+        return coordinator;
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.trustedanalytics.scheduler.filesystem.HdfsConfigProvider;
+import org.trustedanalytics.scheduler.filtering.OozieJobFilter;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.security.TokenProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.trustedanalytics.scheduler.utils.PublicMetricsReader.metric;
+
+public class CoalescingOozieClientTest {
+
+    private static final int USERS = 30;
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+
+    private final OozieClient oozieClient = mock(OozieClient.class);
+    private final TokenProvider tokenProvider = mock(TokenProvider.class);
+    private final HdfsConfigProvider hdfsConfigProvider = mock(HdfsConfigProvider.class);
+    private final OrgJobIds orgJobIds = mock(OrgJobIds.class);
+
+    private final AtomicInteger sweeps = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        when(tokenProvider.getUserId()).thenAnswer(invocation -> CURRENT_USER.get());
+        when(orgJobIds.get("org-1")).thenReturn(ImmutableSet.of("wf-1", "coord-1"));
+        when(orgJobIds.get("org-2")).thenReturn(ImmutableSet.of("wf-2", "coord-2"));
+        when(oozieClient.getCoordinatedJobs(anyString(), anyInt()))
+                .thenAnswer(invocation -> sweep(Arrays.asList(coordinator("coord-1"), coordinator("coord-2"))));
+        when(oozieClient.getWorkflowJobs(anyString(), anyInt(), any(), any(), anyBoolean()))
+                .thenAnswer(invocation -> sweep(Arrays.asList(workflow("wf-1"), workflow("wf-2"))));
+    }
+
+    @Test
+    public void should_shareOneCoordinatorSweep_when_identicalQueriesOverlap() throws Exception {
+        CoalescingOozieClient client = client(false);
+
+        concurrently(client, user -> () -> client.getCoordinatedJobs("org-1", "days", 1));
+
+        assertEquals(1, sweeps.get());
+        assertEquals((long) USERS - 1, metric(client, "counter.oozie.list.queries.shared"));
+    }
+
+    @Test
+    public void should_shareOneWorkflowSweep_when_identicalQueriesOverlap() throws Exception {
+        CoalescingOozieClient client = client(false);
+
+        concurrently(client, user -> () -> client.getWorkflowJobs("org-1", "days", 1, OozieJobsFilter.none(), false));
+
+        assertEquals(1, sweeps.get());
+        assertEquals((long) USERS - 1, metric(client, "counter.oozie.list.queries.shared"));
+    }
+
+    @Test
+    public void should_shareOneSweepAndFilterPerOrganization_when_organizationsDiffer() throws Exception {
+        CoalescingOozieClient client = client(false);
+        Map<Integer, List<String>> results = new ConcurrentHashMap<>();
+
+        concurrently(client, user -> () -> results.put(user,
+                ids(client.getWorkflowJobs("org-" + (user % 2 + 1), "days", 1, OozieJobsFilter.none(), false))));
+
+        assertEquals(1, sweeps.get());
+        for (int user = 0; user < USERS; user++) {
+            assertEquals(Collections.singletonList("wf-" + (user % 2 + 1)), results.get(user));
+        }
+    }
+
+    @Test
+    public void should_notShareSweeps_when_kerberosUsersDiffer() throws Exception {
+        CoalescingOozieClient client = client(true);
+
+        concurrently(client, user -> () -> {
+            CURRENT_USER.set("user-" + user % 3);
+            return client.getCoordinatedJobs("org-1", "days", 1);
+        });
+
+        assertEquals(3, sweeps.get());
+    }
+
+    @Test
+    public void should_returnOnlyOwnOrganizationsCoordinators_when_sweepIsShared() {
+        release.countDown();
+        CoalescingOozieClient client = client(false);
+
+        List<OozieCoordinatedJobInformation> jobs = client.getCoordinatedJobs("org-2", "days", 1);
+
+        assertEquals(1, jobs.size());
+        assertEquals("coord-2", jobs.get(0).getCoordJobId());
+        verify(oozieClient).getCoordinatedJobs("days", 1);
+    }
+
+    private CoalescingOozieClient client(boolean kerberosEnabled) {
+        when(hdfsConfigProvider.isKerberosEnabled()).thenReturn(kerberosEnabled);
+        return new CoalescingOozieClient(oozieClient, new OozieJobFilter(orgJobIds), tokenProvider, hdfsConfigProvider);
+    }
+
+    private List<?> sweep(List<?> jobs) throws InterruptedException {
+        sweeps.incrementAndGet();
+        assertTrue(release.await(10, TimeUnit.SECONDS));
+        return jobs;
+    }
+
+    /**
+     * Runs a query per user and keeps the sweeps blocked until every query has either started a sweep
+     * or joined one already in flight, so all of them overlap.
+     */
+    private void concurrently(CoalescingOozieClient client, UserQuery query) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                futures.add(executor.submit(query.of(user)));
+            }
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (queriesStarted(client) < USERS) {
+                assertTrue("queries did not overlap", System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long queriesStarted(CoalescingOozieClient client) {
+        return (long) metric(client, "counter.oozie.list.queries.executed") + (long) metric(client, "counter.oozie.list.queries.shared");
+    }
+
+    private static List<String> ids(List<OozieWorkflowJobInformationExtended> jobs) {
+        return jobs.stream().map(OozieWorkflowJobInformation::getId).collect(Collectors.toList());
+    }
+
+    private static OozieCoordinatedJobInformation coordinator(String id) {
+        OozieCoordinatedJobInformation coordinator = new OozieCoordinatedJobInformation();
+        coordinator.setCoordJobId(id);
+        return coordinator;
+    }
+
+    private static OozieWorkflowJobInformationExtended workflow(String id) {
+        OozieWorkflowJobInformation workflow = new OozieWorkflowJobInformation();
+        workflow.setId(id);
+        return new OozieWorkflowJobInformationExtended(workflow, "hdfs://nn");
+    }
+
+    @FunctionalInterface
+    private interface UserQuery {
+        Callable<?> of(int user);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobFieldsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().setFilterProvider(JobFields.serializeAllByDefault());
+
+    @Test
+    public void should_serializeLightweightView_when_noFieldsGiven() throws IOException {
+        JsonNode json = write(JobFields.parse(null, JobFields.WORKFLOW_DEFAULTS).apply(Collections.singletonList(workflow())));
+
+        assertEquals(ImmutableSet.of("id", "appName", "status", "createdTime", "endTime", "coordinatorId"), names(json.get(0)));
+        assertEquals("coord-1", json.get(0).get("coordinatorId").asText());
+    }
+
+    @Test
+    public void should_serializeOnlyRequestedFields_when_fieldsGiven() throws IOException {
+        JsonNode json = write(JobFields.parse(" id, conf ", JobFields.WORKFLOW_DEFAULTS).apply(Collections.singletonList(workflow())));
+
+        assertEquals(ImmutableSet.of("id", "conf"), names(json.get(0)));
+    }
+
+    @Test
+    public void should_serializeEverything_when_allFieldsRequested() throws IOException {
+        JobFields all = JobFields.parse("*", JobFields.WORKFLOW_DEFAULTS);
+
+        JsonNode json = write(all.apply(Collections.singletonList(workflow())));
+
+        assertTrue(json.get(0).has("conf"));
+        assertTrue(json.get(0).has("targetDirs"));
+        assertTrue(all.includes("actions"));
+    }
+
+    @Test
+    public void should_notRequireDetails_when_defaultViewIsUsed() {
+        assertFalse(JobFields.WORKFLOW_DEFAULTS.includes("conf"));
+        assertFalse(JobFields.WORKFLOW_DEFAULTS.includes("actions"));
+        assertFalse(JobFields.WORKFLOW_DEFAULTS.includes("targetDirs"));
+        assertFalse(JobFields.WORKFLOW_DEFAULTS.requiresDetails());
+    }
+
+    @Test
+    public void should_requireDetails_when_targetDirsAreSelected() {
+        assertTrue(JobFields.parse("id,targetDirs", JobFields.WORKFLOW_DEFAULTS).requiresDetails());
+    }
+
+    @Test
+    public void should_serializeAllFields_when_noSelectionIsApplied() throws IOException {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(workflow()));
+
+        assertTrue(json.has("conf"));
+        assertTrue(json.has("user"));
+    }
+
+    private JsonNode write(MappingJacksonValue value) throws IOException {
+        return objectMapper.readTree(objectMapper.writer(value.getFilters()).writeValueAsString(value.getValue()));
+    }
+
+    private static Set<String> names(JsonNode node) {
+        return ImmutableSet.copyOf(node.fieldNames());
+    }
+
+    private static OozieWorkflowJobInformationExtended workflow() {
+        OozieWorkflowJobInformation job = new OozieWorkflowJobInformation();
+        job.setId("wf-1");
+        job.setAppName("app");
+        job.setStatus("SUCCEEDED");
+        job.setUser("user");
+        job.setParentId("coord-1@1");
+        job.setConf("<configuration/>");
+        return new OozieWorkflowJobInformationExtended(job, "hdfs://nn");
+    }
+}
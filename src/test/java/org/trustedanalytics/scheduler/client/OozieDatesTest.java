@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OozieDatesTest {
+
+    @Test
+    public void should_parseGmtTimestamp_when_oozieFormatGiven() {
+        assertEquals(LocalDateTime.of(2016, 2, 25, 15, 54), OozieDates.parse("Thu, 25 Feb 2016 15:54:00 GMT"));
+    }
+
+    @Test
+    public void should_convertToUtc_when_timestampHasOtherZone() {
+        long expected = ZonedDateTime.of(2016, 2, 25, 14, 54, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+
+        assertEquals(expected, OozieDates.parseMillis("Thu, 25 Feb 2016 15:54:00 Europe/Warsaw"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_throwIllegalArgument_when_dateIsMalformed() {
+        OozieDates.parseMillis("25-02-2016 15:54 GMT");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_throwIllegalArgument_when_zoneIsUnknown() {
+        OozieDates.parseMillis("Thu, 25 Feb 2016 15:54:00 Mars/Olympus");
+    }
+
+    @Test
+    public void should_compareLastActionOnEpochMillis_when_coordinatorIsFiltered() {
+        OozieCoordinatedJobInformation job = new OozieCoordinatedJobInformation();
+        job.setLastAction("Thu, 25 Feb 2016 15:54:00 GMT");
+
+        assertTrue(job.lastActionAfter(LocalDateTime.of(2016, 2, 25, 15, 53)));
+        assertFalse(job.lastActionAfter(LocalDateTime.of(2016, 2, 25, 15, 54)));
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.trustedanalytics.scheduler.utils.PublicMetricsReader.metric;
+
+public class OozieJobDetailsCacheTest {
+
+    private final AtomicInteger oozieCalls = new AtomicInteger();
+
+    @Test
+    public void should_notCallOozieAgain_when_jobIsTerminal() {
+        OozieJobDetailsCache cache = new OozieJobDetailsCache(100, 3600, 0);
+        OozieWorkflowJobInformationExtended job = workflow("SUCCEEDED");
+
+        cache.getWorkflow("wf-1", () -> load(job));
+        OozieWorkflowJobInformationExtended cached = cache.getWorkflow("wf-1", () -> load(job));
+
+        assertSame(job, cached);
+        assertEquals(1, oozieCalls.get());
+        assertEquals(1L, metric(cache, "counter.oozie.job.details.calls.avoided"));
+        assertEquals(0.5, metric(cache, "gauge.oozie.job.details.cache.hit.ratio"));
+    }
+
+    @Test
+    public void should_reloadJob_when_runningJobTtlPassed() {
+        OozieJobDetailsCache cache = new OozieJobDetailsCache(100, 3600, 0);
+        OozieWorkflowJobInformationExtended job = workflow("RUNNING");
+
+        cache.getWorkflow("wf-1", () -> load(job));
+        cache.getWorkflow("wf-1", () -> load(job));
+
+        assertEquals(2, oozieCalls.get());
+    }
+
+    @Test
+    public void should_reloadJob_when_jobWasManaged() {
+        OozieJobDetailsCache cache = new OozieJobDetailsCache(100, 3600, 3600);
+        OozieCoordinatedJobInformation coordinator = new OozieCoordinatedJobInformation();
+        coordinator.setStatus("RUNNING");
+
+        cache.getCoordinator("coord-1", () -> load(coordinator));
+        cache.invalidate("coord-1");
+        cache.getCoordinator("coord-1", () -> load(coordinator));
+
+        assertEquals(2, oozieCalls.get());
+    }
+
+    @Test
+    public void should_evictLeastRecentlyUsed_when_cacheIsFull() {
+        OozieJobDetailsCache cache = new OozieJobDetailsCache(1, 3600, 3600);
+
+        cache.getWorkflow("wf-1", () -> load(workflow("SUCCEEDED")));
+        cache.getWorkflow("wf-2", () -> load(workflow("SUCCEEDED")));
+        cache.getWorkflow("wf-1", () -> load(workflow("SUCCEEDED")));
+
+        assertEquals(3, oozieCalls.get());
+        assertEquals(1L, metric(cache, "gauge.oozie.job.details.cache.size"));
+    }
+
+    private <T> T load(T job) {
+        oozieCalls.incrementAndGet();
+        return job;
+    }
+
+    private static OozieWorkflowJobInformationExtended workflow(String status) {
+        OozieWorkflowJobInformation job = new OozieWorkflowJobInformation();
+        job.setStatus(status);
+        return new OozieWorkflowJobInformationExtended(job, "hdfs://nn");
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.trustedanalytics.scheduler.utils.PublicMetricsReader.metric;
+
+public class OozieJobGraphCacheTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OozieJobGraphCacheTest.class);
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    public void should_renderEachFinishedGraphOnce_when_manyUsersViewTheSameJobs() throws Exception {
+        OozieJobGraphCache cache = new OozieJobGraphCache(1024 * 1024);
+        int users = 32;
+        int viewsPerUser = 50;
+        int jobs = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int view = 0; view < viewsPerUser; view++) {
+                        cache.get("wf-" + view % jobs, () -> true, () -> render(1024, 20));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        LOGGER.info("{} graph views served with {} Oozie renders, {} renders avoided",
+                users * viewsPerUser, renders.get(), metric(cache, "counter.oozie.job.graph.renders.avoided"));
+        assertEquals(jobs, renders.get());
+        assertEquals((long) users * viewsPerUser - jobs, metric(cache, "counter.oozie.job.graph.renders.avoided"));
+    }
+
+    @Test
+    public void should_renderAgain_when_jobIsStillRunning() {
+        OozieJobGraphCache cache = new OozieJobGraphCache(1024 * 1024);
+
+        cache.get("wf-1", () -> false, () -> render(1024, 0));
+        cache.get("wf-1", () -> false, () -> render(1024, 0));
+
+        assertEquals(2, renders.get());
+        assertEquals(0L, metric(cache, "gauge.oozie.job.graph.cache.size"));
+    }
+
+    @Test
+    public void should_notShareRunningRender_when_jobTurnsTerminalMeanwhile() throws Exception {
+        OozieJobGraphCache cache = new OozieJobGraphCache(1024 * 1024);
+        CountDownLatch renderStarted = new CountDownLatch(1);
+        CountDownLatch jobFinished = new CountDownLatch(1);
+        byte[] runningPng = new byte[1024];
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<OozieJobGraphCache.Graph> running = executor.submit(() -> cache.get("wf-1", () -> false, () -> {
+                renderStarted.countDown();
+                await(jobFinished);
+                return runningPng;
+            }));
+            renderStarted.await();
+
+            byte[] finishedPng = new byte[1024];
+            OozieJobGraphCache.Graph finished = cache.get("wf-1", () -> true, () -> finishedPng);
+            jobFinished.countDown();
+
+            assertFalse(running.get().isTerminal());
+            assertTrue(finished.isTerminal());
+            assertSame(finishedPng, finished.getPng());
+            assertSame(finishedPng, cache.get("wf-1", () -> true, () -> runningPng).getPng());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void should_skipStatusLookup_when_finalGraphIsCached() {
+        OozieJobGraphCache cache = new OozieJobGraphCache(1024 * 1024);
+        AtomicInteger statusLookups = new AtomicInteger();
+
+        cache.get("wf-1", () -> statusLookups.incrementAndGet() > 0, () -> render(1024, 0));
+        OozieJobGraphCache.Graph graph = cache.get("wf-1", () -> statusLookups.incrementAndGet() > 0, () -> render(1024, 0));
+
+        assertTrue(graph.isTerminal());
+        assertEquals(1, statusLookups.get());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    public void should_evictGraphs_when_byteBudgetIsExceeded() {
+        OozieJobGraphCache cache = new OozieJobGraphCache(1500);
+
+        cache.get("wf-1", () -> true, () -> render(1024, 0));
+        cache.get("wf-2", () -> true, () -> render(1024, 0));
+        cache.get("wf-1", () -> true, () -> render(1024, 0));
+
+        assertEquals(3, renders.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] render(int size, long millis) {
+        renders.incrementAndGet();
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new byte[size];
+    }
+}
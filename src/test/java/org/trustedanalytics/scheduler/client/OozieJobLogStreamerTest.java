@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OozieJobLogStreamerTest {
+
+    private static final String LOG = "INFO start\nWARN slow mapper\nINFO map 50%\nERROR task failed\nINFO done\n";
+
+    @Mock
+    private OozieClient oozieClient;
+
+    private OozieJobLogStreamer streamer;
+
+    @Before
+    public void setUp() {
+        streamer = new OozieJobLogStreamer(oozieClient, 0, 60000);
+    }
+
+    @Test
+    public void should_copyWholeLog_when_noQueryGiven() throws IOException {
+        serveLogs(LOG);
+
+        assertEquals(LOG, stream(JobLogQuery.builder().build()));
+    }
+
+    @Test
+    public void should_copyByteRange_when_offsetAndLengthGiven() throws IOException {
+        serveLogs(LOG);
+
+        assertEquals("WARN slow", stream(JobLogQuery.builder().offset(11).length(9L).build()));
+    }
+
+    @Test
+    public void should_copyMatchingLines_when_grepGiven() throws IOException {
+        serveLogs(LOG);
+
+        assertEquals("WARN slow mapper\nINFO map 50%\n", stream(JobLogQuery.builder().grep("map").build()));
+    }
+
+    @Test
+    public void should_matchGrepLiterally_when_itLooksLikeRegex() throws IOException {
+        serveLogs("INFO aaaa done\nINFO (a+)+$ done\n");
+
+        assertEquals("INFO (a+)+$ done\n", stream(JobLogQuery.builder().grep("(a+)+$").build()));
+    }
+
+    @Test
+    public void should_copyLastMatchingLines_when_tailAndGrepGiven() throws IOException {
+        serveLogs(LOG);
+
+        assertEquals("INFO map 50%\nINFO done\n",
+                stream(JobLogQuery.builder().tailLines(2).grep("INFO").build()));
+    }
+
+    @Test
+    public void should_streamNewLinesOnce_when_followingRunningJob() throws IOException {
+        when(oozieClient.getWorkflowJobDetails("wf-1")).thenReturn(workflow("RUNNING"), workflow("SUCCEEDED"));
+        serveLogs("INFO start\nINFO map", "INFO start\nINFO map 50%\nINFO done");
+
+        assertEquals("INFO start\nINFO map 50%\nINFO done",
+                stream(JobLogQuery.builder().grep("INFO").follow(true).build()));
+        verify(oozieClient, times(2)).readJobLog(eq("wf-1"), any());
+    }
+
+    @Test
+    public void should_keepOnlyTailInMemory_when_logIsLarge() throws IOException {
+        long size = 50L * 1024 * 1024;
+        when(oozieClient.readJobLog(eq("wf-1"), any())).thenAnswer(invocation ->
+                ((ResponseExtractor<?>) invocation.getArguments()[1]).extractData(new MockClientHttpResponse(new LogLines(size), HttpStatus.OK)));
+
+        String tail = stream(JobLogQuery.builder().tailLines(2).build());
+
+        assertEquals(2, tail.split("\n").length);
+    }
+
+    private String stream(JobLogQuery query) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamer.stream("wf-1", query, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void serveLogs(String... passes) {
+        Iterator<String> logs = Arrays.asList(passes).iterator();
+        when(oozieClient.readJobLog(eq("wf-1"), any())).thenAnswer(invocation ->
+                ((ResponseExtractor<?>) invocation.getArguments()[1]).extractData(
+                        new MockClientHttpResponse(logs.next().getBytes(StandardCharsets.UTF_8), HttpStatus.OK)));
+    }
+
+    private static OozieWorkflowJobInformationExtended workflow(String status) {
+        OozieWorkflowJobInformation workflow = new OozieWorkflowJobInformation();
+        workflow.setStatus(status);
+        return new OozieWorkflowJobInformationExtended(workflow, "hdfs://nn");
+    }
+
+    // generates numbered log lines up to given size without holding them in memory
+    private static class LogLines extends InputStream {
+
+        private final long size;
+        private long served;
+        private byte[] line = new byte[0];
+        private int position;
+        private int lineNumber;
+
+        LogLines(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (served >= size) {
+                    return -1;
+                }
+                line = ("INFO line " + lineNumber++ + " of a long running sqoop import\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            served++;
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.trustedanalytics.scheduler.utils.StubOozieRestTemplate.oozieDate;
+
+public class OozieJobPageReaderTest {
+
+    private static final String CONF = "<configuration><property><name>targetDir</name><value>hdfs://nn/org/data</value></property>";
+    private static final long SYNTHETIC_RESPONSE_BYTES = 4L * 1024 * 1024;
+
+    private final ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+    private final OozieJobPageReader reader = new OozieJobPageReader("hdfs://nn");
+
+    @Test
+    public void should_skipConfAndActions_when_detailsAreNotRequested() throws IOException {
+        JobPage<OozieWorkflowJobInformationExtended> page = reader.readWorkflows(json(page(job("wf-1", now))), 0, job -> true, false);
+
+        OozieWorkflowJobInformationExtended job = page.getJobs().get(0);
+        assertEquals("wf-1", job.getId());
+        assertNull(job.getConf());
+        assertNull(job.getActions());
+    }
+
+    @Test
+    public void should_keepConfAndActions_when_detailsAreRequested() throws IOException {
+        JobPage<OozieWorkflowJobInformationExtended> page = reader.readWorkflows(json(page(job("wf-1", now))), 0, job -> true, true);
+
+        OozieWorkflowJobInformationExtended job = page.getJobs().get(0);
+        assertNotNull(job.getConf());
+        assertEquals(1, job.getActions().size());
+        assertEquals(Collections.singletonList("hdfs://nn/org/data"), job.getTargetDirs());
+    }
+
+    @Test
+    public void should_stopReading_when_jobOutsideOfWindowIsReached() throws IOException {
+        long cutoff = now.minusHours(1).toInstant().toEpochMilli();
+
+        JobPage<OozieWorkflowJobInformationExtended> page = reader.readWorkflows(
+                json(page(job("new", now), job("old", now.minusDays(1)), job("older", now.minusDays(2)))),
+                cutoff, job -> true, false);
+
+        assertEquals(1, page.getJobs().size());
+        assertEquals(2, page.getEntriesRead());
+        assertTrue(page.isWindowExceeded());
+    }
+
+    @Test
+    public void should_dropJob_when_predicateRejectsIt() throws IOException {
+        JobPage<OozieWorkflowJobInformationExtended> page = reader.readWorkflows(json(page(job("mine", now), job("theirs", now))),
+                0, job -> "mine".equals(job.getId()), false);
+
+        assertEquals(1, page.getJobs().size());
+        assertEquals(2, page.getEntriesRead());
+        assertFalse(page.isWindowExceeded());
+    }
+
+    @Test
+    public void should_neverMaterializeConfOrActions_when_detailsAreNotRequested() throws IOException {
+        SyntheticPage body = new SyntheticPage(now, SYNTHETIC_RESPONSE_BYTES);
+        List<OozieWorkflowJobInformationExtended> seen = new ArrayList<>();
+
+        JobPage<OozieWorkflowJobInformationExtended> page = reader.readWorkflows(body, 0, job -> {
+            seen.add(job);
+            return job.getId().contains("000-oozie");
+        }, false);
+
+        assertTrue(body.bytesServed >= SYNTHETIC_RESPONSE_BYTES);
+        assertEquals(page.getEntriesRead(), seen.size());
+        assertEquals((page.getEntriesRead() + 999) / 1000, page.getJobs().size());
+        assertTrue(seen.stream().allMatch(job -> job.getConf() == null && job.getActions() == null));
+    }
+
+    private static InputStream json(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String page(String... jobs) {
+        return "{\"total\":" + jobs.length + ",\"offset\":1,\"len\":50,\"workflows\":[" + String.join(",", jobs) + "]}";
+    }
+
+    private static String job(String id, ZonedDateTime createdTime) {
+        return job(id, createdTime, CONF + "</configuration>");
+    }
+
+    private static String job(String id, ZonedDateTime createdTime, String conf) {
+        return "{\"id\":\"" + id + "\",\"status\":\"SUCCEEDED\",\"createdTime\":\"" + oozieDate(createdTime) + "\","
+                + "\"conf\":\"" + conf + "\",\"actions\":[{\"id\":\"" + id + "@:start:\",\"name\":\":start:\"}],"
+                + "\"parentId\":null,\"run\":0}";
+    }
+
+    // generates a single newest first Oozie page of the requested size without holding it in memory
+    private static class SyntheticPage extends InputStream {
+
+        private final ZonedDateTime newest;
+        private final long size;
+        private final String paddedConf;
+
+        private byte[] chunk = "{\"total\":0,\"workflows\":[".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int jobCount;
+        private long bytesServed;
+        private boolean closed;
+
+        SyntheticPage(ZonedDateTime newest, long size) {
+            this.newest = newest;
+            this.size = size;
+            StringBuilder conf = new StringBuilder(CONF);
+            while (conf.length() < 4096) {
+                conf.append("<property><name>oozie.padding</name><value>x</value></property>");
+            }
+            this.paddedConf = conf.append("</configuration>").toString();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position == chunk.length && !nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, count);
+            position += count;
+            bytesServed += count;
+            return count;
+        }
+
+        private boolean nextChunk() {
+            if (closed) {
+                return false;
+            }
+            String next;
+            if (bytesServed >= size) {
+                next = "]}";
+                closed = true;
+            } else {
+                next = (jobCount == 0 ? "" : ",") + job(String.format("%07d-oozie-W", jobCount),
+                        newest.minusSeconds(jobCount), paddedConf);
+                jobCount++;
+            }
+            chunk = next.getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class OozieJobsFilterTest {
+
+    @Test
+    public void should_joinCriteria_when_allValuesGiven() {
+        OozieJobsFilter filter = OozieJobsFilter.builder().status("running").user("john").name("import").build();
+
+        String parameter = filter.toQueryParameter(LocalDateTime.of(2016, 5, 1, 10, 15));
+
+        assertEquals("startcreatedtime=2016-05-01T10:15Z;status=RUNNING;user=john;name=import", parameter);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_when_userAddsCriterion() {
+        OozieJobsFilter.builder().user("john;user=admin").build().toQueryParameter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_when_nameContainsEqualsSign() {
+        OozieJobsFilter.builder().name("a=b").build().toQueryParameter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_when_userAddsQueryParameter() {
+        OozieJobsFilter.builder().user("john&len=100000").build().toQueryParameter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_when_nameTruncatesQuery() {
+        OozieJobsFilter.builder().name("import#").build().toQueryParameter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_when_nameContainsTemplateVariable() {
+        OozieJobsFilter.builder().name("{import}").build().toQueryParameter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_when_statusContainsClosingBrace() {
+        OozieJobsFilter.builder().statuses(Collections.singletonList("RUNNING}")).build().toQueryParameter(null);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.client;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OozieWorkflowJobInformationExtendedTest {
+
+    private static final String CONF = "<configuration><property><name>targetDir</name>\n  <value>hdfs://nn/org/data</value>"
+            + "</property></configuration>";
+
+    @Test
+    public void should_extractTargetDirAndCoordinator_when_accessed() {
+        OozieWorkflowJobInformationExtended job = new OozieWorkflowJobInformationExtended(workflow("coord-1@3", CONF), "hdfs://nn");
+
+        assertEquals(Collections.singletonList("hdfs://nn/org/data"), job.getTargetDirs());
+        assertEquals("coord-1", job.getCoordinatorId());
+    }
+
+    @Test
+    public void should_returnNoTargetDirs_when_confIsMissing() {
+        OozieWorkflowJobInformationExtended job = new OozieWorkflowJobInformationExtended(workflow(null, null), "hdfs://nn");
+
+        assertTrue(job.getTargetDirs().isEmpty());
+        assertNull(job.getCoordinatorId());
+    }
+
+    @Test
+    public void should_keepTargetDirs_when_confIsDroppedAfterAccess() {
+        OozieWorkflowJobInformationExtended job = new OozieWorkflowJobInformationExtended(workflow(null, CONF), "hdfs://nn");
+
+        job.getTargetDirs();
+        job.setConf(null);
+
+        assertEquals(Collections.singletonList("hdfs://nn/org/data"), job.getTargetDirs());
+    }
+
+    private static OozieWorkflowJobInformation workflow(String parentId, String conf) {
+        OozieWorkflowJobInformation workflow = new OozieWorkflowJobInformation();
+        workflow.setId("wf-1");
+        workflow.setParentId(parentId);
+        workflow.setConf(conf);
+        return workflow;
+    }
+}
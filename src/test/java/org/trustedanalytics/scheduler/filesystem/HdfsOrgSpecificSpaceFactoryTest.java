@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.filesystem;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+import org.trustedanalytics.scheduler.utils.MockTokenProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HdfsOrgSpecificSpaceFactoryTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private final FileSystemFactory countingFileSystemFactory = org -> {
+        opened.incrementAndGet();
+        FileSystem fileSystem = new LocalFileSystem() {
+            @Override
+            public void close() throws IOException {
+                closed.incrementAndGet();
+                super.close();
+            }
+        };
+        fileSystem.initialize(URI.create("file:///"), new Configuration());
+        return fileSystem;
+    };
+
+    @Test
+    public void should_keepFileSystemCountFlat_when_manySubmitsRunConcurrently() throws Exception {
+        HdfsOrgSpecificSpaceFactory factory =
+                new HdfsOrgSpecificSpaceFactory(countingFileSystemFactory, new MockTokenProvider(), 100, 600);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<OrgSpecificSpace>> spaces = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                final String org = "org-" + i % 3;
+                spaces.add(executor.submit(() -> factory.getOrgSpecificSpace(org)));
+            }
+            for (Future<OrgSpecificSpace> space : spaces) {
+                space.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(3, opened.get());
+        assertEquals(3, factory.cachedFileSystems());
+        assertEquals(0, closed.get());
+    }
+
+    @Test
+    public void should_closeFileSystem_when_evictedFromFullCache() throws IOException {
+        HdfsOrgSpecificSpaceFactory factory =
+                new HdfsOrgSpecificSpaceFactory(countingFileSystemFactory, new MockTokenProvider(), 1, 600);
+
+        factory.getOrgSpecificSpace("org-1").close();
+        factory.getOrgSpecificSpace("org-2").close();
+
+        assertEquals(2, opened.get());
+        assertEquals(1, closed.get());
+
+        factory.closeAll();
+        assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void should_closeEvictedFileSystem_only_when_lastSpaceReleased() throws IOException {
+        HdfsOrgSpecificSpaceFactory factory =
+                new HdfsOrgSpecificSpaceFactory(countingFileSystemFactory, new MockTokenProvider(), 1, 600);
+
+        OrgSpecificSpace inFlight = factory.getOrgSpecificSpace("org-1");
+        factory.getOrgSpecificSpace("org-2").close();
+        assertEquals(0, closed.get());
+        assertTrue(inFlight.fileExists(new Path("/")));
+
+        inFlight.close();
+        inFlight.close();
+        assertEquals(1, closed.get());
+
+        OrgSpecificSpace reopened = factory.getOrgSpecificSpace("org-1");
+        assertEquals(3, opened.get());
+        reopened.close();
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.filtering;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
+import org.trustedanalytics.scheduler.persistence.repository.OozieJobRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OozieJobFilterTest {
+
+    private static final String ORG = "org";
+
+    @Mock
+    private OozieJobRepository oozieJobRepository;
+
+    private OrgJobIds orgJobIds;
+    private OozieJobFilter oozieJobFilter;
+
+    @Before
+    public void setUp() {
+        when(oozieJobRepository.findByOrgId(ORG)).thenReturn(Arrays.asList(
+                new OozieJobEntity("job-1", ORG),
+                new OozieJobEntity("job-3", ORG)));
+        when(oozieJobRepository.save(any(OozieJobEntity.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        orgJobIds = new OrgJobIds(oozieJobRepository, 60);
+        oozieJobFilter = new OozieJobFilter(orgJobIds);
+    }
+
+    @Test
+    public void should_queryRepositoryOnce_when_filteringManyJobs() {
+        List<OozieCoordinatedJobInformation> jobs = coordinators(1000);
+
+        oozieJobFilter.filterCoordinatorByOrg(jobs, ORG);
+        List<OozieCoordinatedJobInformation> filtered = oozieJobFilter.filterCoordinatorByOrg(jobs, ORG);
+
+        assertThat(ids(filtered), contains("job-1", "job-3"));
+        verify(oozieJobRepository, times(1)).findByOrgId(ORG);
+    }
+
+    @Test
+    public void should_includeJob_when_savedAfterCacheWasLoaded() {
+        List<OozieCoordinatedJobInformation> jobs = coordinators(5);
+        oozieJobFilter.filterCoordinatorByOrg(jobs, ORG);
+
+        orgJobIds.save(new OozieJobEntity("job-2", ORG));
+
+        assertThat(ids(oozieJobFilter.filterCoordinatorByOrg(jobs, ORG)), contains("job-1", "job-2", "job-3"));
+        verify(oozieJobRepository, times(1)).findByOrgId(ORG);
+    }
+
+    private static List<OozieCoordinatedJobInformation> coordinators(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> {
+                    OozieCoordinatedJobInformation job = new OozieCoordinatedJobInformation();
+                    job.setCoordJobId("job-" + i);
+                    return job;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> ids(List<OozieCoordinatedJobInformation> jobs) {
+        return jobs.stream().map(OozieCoordinatedJobInformation::getCoordJobId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.index;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.client.OozieJobsFilter;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformation;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformationExtended;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.trustedanalytics.scheduler.utils.StubOozieRestTemplate.oozieDate;
+import static org.trustedanalytics.scheduler.utils.StubOozieRestTemplate.workflow;
+
+public class OozieJobIndexTest {
+
+    private final ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
+
+    private OozieJobIndex oozieJobIndex;
+
+    @Before
+    public void setUp() {
+        oozieJobIndex = new OozieJobIndex(7, 120000);
+    }
+
+    @Test
+    public void should_notCoverQueries_when_indexWasNotPolledYet() {
+        assertFalse(oozieJobIndex.covers("hours", 1));
+
+        oozieJobIndex.markPolled(System.currentTimeMillis(), 0);
+
+        assertTrue(oozieJobIndex.covers("hours", 1));
+        assertFalse(oozieJobIndex.covers("days", 8));
+    }
+
+    @Test
+    public void should_notCoverQueries_when_lastSuccessfulPollTooOld() {
+        oozieJobIndex.markPolled(System.currentTimeMillis() - 120001, 0);
+
+        assertFalse(oozieJobIndex.covers("hours", 1));
+    }
+
+    @Test
+    public void should_keepTerminalCoordinators_when_onlyActiveOnesUpdated() {
+        oozieJobIndex.replaceCoordinators(Arrays.asList(coordinator("done", "SUCCEEDED"), coordinator("active", "RUNNING")));
+        assertThat(oozieJobIndex.activeCoordinatorIds(), contains("active"));
+
+        assertEquals(0, oozieJobIndex.updateCoordinators(Arrays.asList(coordinator("active", "RUNNING"))));
+        assertEquals(1, oozieJobIndex.updateCoordinators(Arrays.asList(coordinator("active", "SUCCEEDED"))));
+
+        assertThat(oozieJobIndex.activeCoordinatorIds(), empty());
+        assertEquals(2, oozieJobIndex.getCoordinatedJobs("days", 1).size());
+    }
+
+    @Test
+    public void should_returnNewestFirstWorkflowsInWindow_when_queried() {
+        oozieJobIndex.updateWorkflows(Arrays.asList(
+                extended(workflow("old", now.minusHours(5))),
+                extended(workflow("newest", now.minusMinutes(10))),
+                extended(workflow("newer", now.minusMinutes(50)))));
+
+        List<String> ids = oozieJobIndex.getWorkflowJobs("hours", 1, OozieJobsFilter.none())
+                .stream()
+                .map(OozieWorkflowJobInformationExtended::getId)
+                .collect(Collectors.toList());
+
+        assertThat(ids, contains("newest", "newer"));
+    }
+
+    @Test
+    public void should_replaceWorkflow_only_when_lastModTimeChanged() {
+        OozieWorkflowJobInformation running = workflow("job", now.minusMinutes(10));
+        running.setStatus("RUNNING");
+        assertEquals(1, oozieJobIndex.updateWorkflows(Arrays.asList(extended(running))));
+        assertEquals(0, oozieJobIndex.updateWorkflows(Arrays.asList(extended(running))));
+        assertThat(oozieJobIndex.activeWorkflowIds(), contains("job"));
+
+        OozieWorkflowJobInformation finished = workflow("job", now.minusMinutes(10));
+        finished.setLastModTime(oozieDate(now));
+        assertEquals(1, oozieJobIndex.updateWorkflows(Arrays.asList(extended(finished))));
+        assertThat(oozieJobIndex.activeWorkflowIds(), empty());
+    }
+
+    @Test
+    public void should_dropWorkflows_when_olderThanRetention() {
+        oozieJobIndex.updateWorkflows(Arrays.asList(
+                extended(workflow("expired", now.minusDays(8))),
+                extended(workflow("kept", now.minusDays(1)))));
+
+        oozieJobIndex.evictCreatedBefore(oozieJobIndex.retentionCutoff());
+
+        List<String> ids = oozieJobIndex.getWorkflowJobs("days", 30, OozieJobsFilter.none())
+                .stream()
+                .map(OozieWorkflowJobInformationExtended::getId)
+                .collect(Collectors.toList());
+        assertThat(ids, contains("kept"));
+    }
+
+    private static OozieWorkflowJobInformationExtended extended(OozieWorkflowJobInformation workflow) {
+        return new OozieWorkflowJobInformationExtended(workflow, "");
+    }
+
+    private static OozieCoordinatedJobInformation coordinator(String id, String status) {
+        OozieCoordinatedJobInformation coordinator = new OozieCoordinatedJobInformation();
+        coordinator.setCoordJobId(id);
+        coordinator.setStatus(status);
+        return coordinator;
+    }
+}
@@ -16,16 +16,54 @@
 package org.trustedanalytics.scheduler.oozie;
 
 import org.apache.commons.lang.StringUtils;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
 import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobAction;
+import org.trustedanalytics.scheduler.client.OozieCoordinatedJobInformation;
+import org.trustedanalytics.scheduler.client.OozieJobsFilter;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformation;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformationExtended;
+import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
 import org.trustedanalytics.scheduler.utils.FileLoader;
+import org.trustedanalytics.scheduler.utils.MockRestOperationsFactory;
 import org.trustedanalytics.scheduler.utils.MockRestTemplate;
+import org.trustedanalytics.scheduler.utils.MockTokenProvider;
+import org.trustedanalytics.scheduler.utils.StubOozieRestTemplate;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes=TestConfiguration.class)
@@ -34,6 +72,13 @@ public class OozieClientTest  {
     @Autowired
     OozieClient oozieClient;
 
+    private final List<ExecutorService> pageFetchExecutors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        pageFetchExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
     @Test
     public void submitCoordinatedJob() {
         oozieClient.submitCoordinatedJob("jobDefinitionDirectory", "test_target_dir");
@@ -55,4 +100,179 @@ public class OozieClientTest  {
 
         assertTrue(propertiesDiff.length() == 0);
     }
+
+    @Test
+    public void should_escapeParameters_when_submittingWorkflowJobWithParameters() {
+        oozieClient.submitWorkflowJob("jobDefinitionDirectory", "test_target_dir",
+                Collections.singletonMap("sqoopCommand", "import --where a<5&b>6"));
+
+        assertTrue(MockRestTemplate.getRequestBody().toString().endsWith(
+                "<property><name>sqoopCommand</name><value>import --where a&lt;5&amp;b&gt;6</value></property></configuration>"));
+    }
+
+    @Test
+    public void should_stopPaging_when_jobOutsideOfWindowIsReached() throws IOException, GeneralSecurityException {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("GMT"));
+        List<OozieWorkflowJobInformation> history = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            history.add(StubOozieRestTemplate.workflow("recent-" + i, now.minusSeconds(i)));
+        }
+        for (int i = 0; i < 100000; i++) {
+            history.add(StubOozieRestTemplate.workflow("old-" + i, now.minusDays(2).minusSeconds(i)));
+        }
+        StubOozieRestTemplate oozie = new StubOozieRestTemplate(history);
+
+        List<OozieWorkflowJobInformationExtended> jobs = stubbedClient(oozie)
+                .getWorkflowJobs("hours", 1, OozieJobsFilter.builder().status("succeeded").build());
+
+        assertEquals(60, jobs.size());
+        assertEquals(2, oozie.getRequestCount());
+        assertTrue(oozie.getRequestedUrls().get(0).contains("&filter=startcreatedtime="));
+        assertTrue(oozie.getRequestedUrls().get(0).contains(";status=SUCCEEDED"));
+    }
+
+    @Test
+    public void should_pageCoordinatorActionsOnServer_when_submittedWorkflowsRequested() throws IOException, GeneralSecurityException {
+        RestTemplate oozie = mock(RestTemplate.class);
+        OozieCoordinatedJobInformation coordinator = new OozieCoordinatedJobInformation();
+        coordinator.setCoordJobName("import");
+        coordinator.setUser("scheduler");
+        coordinator.setActions(Arrays.asList(action("wf-2", "RUNNING"), action(null, null), action("wf-1", "SUCCEEDED")));
+        when(oozie.getForObject(anyString(), eq(OozieCoordinatedJobInformation.class))).thenReturn(coordinator);
+
+        List<OozieWorkflowJobInformationExtended> jobs = stubbedClient(oozie).getWorkflowJobOfCoordinator(3, 20, "coord-1");
+
+        assertEquals(Arrays.asList("wf-2", "wf-1"), jobs.stream().map(OozieWorkflowJobInformation::getId).collect(Collectors.toList()));
+        verify(oozie).getForObject(TestConfiguration.OOZIE_API_URL + "/oozie/v1/job/coord-1?show=info&order=desc&offset=41&len=20",
+                OozieCoordinatedJobInformation.class);
+        verifyNoMoreInteractions(oozie);
+    }
+
+    @Test
+    public void should_buildWorkflowsFromActionData_when_submittedWorkflowsRequested() throws IOException, GeneralSecurityException {
+        RestTemplate oozie = mock(RestTemplate.class);
+        OozieCoordinatedJobInformation coordinator = new OozieCoordinatedJobInformation();
+        coordinator.setCoordJobName("import");
+        coordinator.setUser("scheduler");
+        coordinator.setActions(Arrays.asList(action("wf-2", "RUNNING"), action("wf-1", "SUCCEEDED")));
+        when(oozie.getForObject(anyString(), eq(OozieCoordinatedJobInformation.class))).thenReturn(coordinator);
+
+        List<OozieWorkflowJobInformationExtended> jobs = stubbedClient(oozie).getWorkflowJobOfCoordinator(1, 20, "coord-1");
+
+        OozieWorkflowJobInformationExtended running = jobs.get(0);
+        assertEquals("import-app", running.getAppName());
+        assertEquals("scheduler", running.getUser());
+        assertEquals("RUNNING", running.getStatus());
+        assertEquals("coord-1", running.getCoordinatorId());
+        assertEquals("Mon, 10 Oct 2016 10:00:00 GMT", running.getCreatedTime());
+        assertEquals("Mon, 10 Oct 2016 09:50:00 GMT", running.getStartTime());
+        assertNull(running.getEndTime());
+        assertEquals("Mon, 10 Oct 2016 11:00:00 GMT", jobs.get(1).getEndTime());
+    }
+
+    @Test
+    public void should_returnNoWorkflows_when_coordinatorIsMissing() throws IOException, GeneralSecurityException {
+        RestTemplate oozie = mock(RestTemplate.class);
+
+        assertTrue(stubbedClient(oozie).getWorkflowJobOfCoordinator(1, 20, "coord-1").isEmpty());
+    }
+
+    private static OozieCoordinatedJobAction action(String workflowId, String workflowStatus) {
+        OozieCoordinatedJobAction action = new OozieCoordinatedJobAction();
+        action.setId("coord-1@" + workflowId);
+        action.setStatus("RUNNING");
+        action.setExternalId(workflowId);
+        action.setExternalStatus(workflowStatus);
+        action.setNominalTime("Mon, 10 Oct 2016 09:50:00 GMT");
+        action.setCreatedTime("Mon, 10 Oct 2016 10:00:00 GMT");
+        action.setLastModifiedTime("Mon, 10 Oct 2016 11:00:00 GMT");
+        return action;
+    }
+
+    @Test
+    public void should_fetchRemainingPagesInParallel_when_totalIsKnown() throws IOException, GeneralSecurityException {
+        int parallelism = 4;
+        // the first remaining pages only get past the barrier when all of them are being fetched at once
+        CyclicBarrier concurrentFetches = new CyclicBarrier(parallelism);
+        StubOozieRestTemplate oozie = new StubOozieRestTemplate(history(1000), offset -> {
+            if (offset > 1 && offset <= 1 + parallelism * 50) {
+                await(concurrentFetches);
+            }
+        });
+
+        List<OozieWorkflowJobInformationExtended> parallel = stubbedClient(oozie, parallelism).getWorkflowJobs("hours", 1);
+
+        assertEquals(1000, parallel.size());
+        assertEquals(ids(stubbedClient(new StubOozieRestTemplate(history(1000)), 1).getWorkflowJobs("hours", 1)), ids(parallel));
+    }
+
+    @Test
+    public void should_cancelRemainingPages_when_pageFetchFails() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        StubOozieRestTemplate oozie = new StubOozieRestTemplate(history(1000), offset -> {
+            if (offset == 51) {
+                throw new RestClientException("Oozie unavailable");
+            }
+            if (offset == 101) {
+                await(failed);
+            }
+        });
+
+        try {
+            stubbedClient(oozie, 1).getWorkflowJobs("hours", 1);
+            fail("page fetch failure expected");
+        } catch (RestClientException e) {
+            failed.countDown();
+        }
+        pageFetchExecutors.forEach(ExecutorService::shutdown);
+        assertTrue(pageFetchExecutors.get(0).awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(oozie.getRequestedUrls().stream().noneMatch(url -> url.contains("&offset=151")));
+    }
+
+    private static List<OozieWorkflowJobInformation> history(int size) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("GMT"));
+        List<OozieWorkflowJobInformation> history = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            history.add(StubOozieRestTemplate.workflow("recent-" + i, now.minusSeconds(i)));
+        }
+        return history;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException("Pages were not fetched concurrently", e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> ids(List<OozieWorkflowJobInformationExtended> jobs) {
+        return jobs.stream().map(OozieWorkflowJobInformation::getId).collect(Collectors.toList());
+    }
+
+    private OozieClient stubbedClient(RestTemplate restTemplate) throws IOException, GeneralSecurityException {
+        return stubbedClient(restTemplate, 2);
+    }
+
+    private OozieClient stubbedClient(RestTemplate restTemplate, int pageFetchParallelism) throws IOException, GeneralSecurityException {
+        ExecutorService pageFetchExecutor = Executors.newFixedThreadPool(pageFetchParallelism);
+        pageFetchExecutors.add(pageFetchExecutor);
+        JobContext jobContext = JobContext.builder().oozieApiUrl(TestConfiguration.OOZIE_API_URL)
+                .nameNode(TestConfiguration.TEST_NAMENODE).build();
+        return new OozieClient(new MockRestOperationsFactory() {
+            @Override
+            public RestTemplate getRestTemplate() {
+                return restTemplate;
+            }
+        }, new MockTokenProvider(), jobContext, pageFetchExecutor);
+    }
 }
@@ -28,6 +28,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopMultiTableImportJob;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopScheduledImportJob;
 import org.trustedanalytics.scheduler.utils.FileLoader;
 import org.trustedanalytics.scheduler.utils.InMemoryOrgSpecificSpace;
@@ -35,9 +36,11 @@ import org.trustedanalytics.scheduler.utils.InMemoryOrgSpecificSpace;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -180,6 +183,136 @@ public class OozieServiceTest  {
         assertTrue(workflowDiff.length() == 0);
     }
 
+    @Test
+    public void should_estimateMappersFromTableSize_when_mappersNotGiven() throws IOException {
+        SqoopImportJob sqoopImportJob = getDefaultPostgresJob();
+        sqoopImportJob.getSqoopImport().setEstimatedRows(2500L);
+
+        oozieService.sqoopImportJob(sqoopImportJob, orgId);
+
+        assertTrue(InMemoryOrgSpecificSpace.getWorkflowXml().contains("--num-mappers 3 --autoreset-to-one-mapper --target-dir"));
+    }
+
+    @Test
+    public void should_capMappersAtDatabaseLimit_when_tooManyMappersRequested() throws IOException {
+        SqoopImportJob sqoopImportJob = getDefaultPostgresJob();
+        sqoopImportJob.getSqoopImport().setMappers(40);
+        sqoopImportJob.getSqoopImport().setSplitBy("id");
+
+        oozieService.sqoopImportJob(sqoopImportJob, orgId);
+
+        assertTrue(InMemoryOrgSpecificSpace.getWorkflowXml().contains("--num-mappers 4 --split-by id --target-dir"));
+    }
+
+    @Test
+    public void should_passBoundaryQueryInOptionsFile_when_boundaryQueryGiven() throws IOException {
+        SqoopImportJob sqoopImportJob = getDefaultPostgresJob();
+        sqoopImportJob.getSqoopImport().setMappers(2);
+        sqoopImportJob.getSqoopImport().setSplitBy("id");
+        sqoopImportJob.getSqoopImport().setBoundaryQuery("SELECT MIN(id), MAX(id)\n FROM table_in_database");
+
+        oozieService.sqoopImportJob(sqoopImportJob, orgId);
+
+        String generatedWorkflow = InMemoryOrgSpecificSpace.getWorkflowXml();
+        assertTrue(generatedWorkflow.contains("--split-by id --options-file boundary-query.options --target-dir"));
+        assertTrue(generatedWorkflow.contains("<file>boundary-query.options</file>"));
+        assertEquals("--boundary-query\nSELECT MIN(id), MAX(id) FROM table_in_database\n",
+                InMemoryOrgSpecificSpace.getFileContent("boundary-query.options"));
+    }
+
+    @Test
+    public void should_addFormatAndCompressionFlags_when_parquetWithSnappyRequested() throws IOException {
+        SqoopImportJob sqoopImportJob = getDefaultPostgresJob();
+        sqoopImportJob.getSqoopImport().setFileFormat("parquet");
+        sqoopImportJob.getSqoopImport().setCompressionCodec("Snappy");
+
+        oozieService.sqoopImportJob(sqoopImportJob, orgId);
+
+        assertTrue(InMemoryOrgSpecificSpace.getWorkflowXml()
+                .contains("--append --as-parquetfile --compress --compression-codec snappy --connection-param-file"));
+    }
+
+    @Test
+    public void should_storeFormatInSqoopJob_when_scheduledAvroImportRequested() throws IOException {
+        SqoopScheduledImportJob sqoopScheduledImportJob = getDefaultScheduledSqoopJob();
+        sqoopScheduledImportJob.getSqoopImport().setFileFormat("avro");
+        sqoopScheduledImportJob.getSqoopImport().setCompress(true);
+
+        oozieService.sqoopScheduledImportJob(sqoopScheduledImportJob, orgId);
+
+        assertTrue(InMemoryOrgSpecificSpace.getWorkflowXml()
+                .contains("--append --as-avrodatafile --compress --connection-param-file"));
+    }
+
+    @Test
+    public void should_forkTablesIntoParallelLanes_when_importingMultipleTables() throws IOException {
+        SqoopMultiTableImportJob job = getDefaultMultiTableJob("users", "orders", "items");
+        job.setParallelism(2);
+
+        oozieService.sqoopMultiTableImportJob(job, orgId);
+
+        String generatedWorkflow = InMemoryOrgSpecificSpace.getWorkflowXml().replaceAll("[ \t\r]","").trim();
+        String validWorkflow = FileLoader.readFileResourceNormalized("/job/workflow_multi_table.xml");
+        assertEquals(validWorkflow.trim(), generatedWorkflow);
+    }
+
+    @Test
+    public void should_capLanesAtMaxParallelism_when_parallelismNotGiven() throws IOException {
+        SqoopMultiTableImportJob job = getDefaultMultiTableJob("t0", "t1", "t2", "t3", "t4");
+
+        oozieService.sqoopMultiTableImportJob(job, orgId);
+
+        String generatedWorkflow = InMemoryOrgSpecificSpace.getWorkflowXml();
+        assertEquals(3, StringUtils.countMatches(generatedWorkflow, "<path "));
+        assertTrue(generatedWorkflow.contains("<start to=\"test-fork\"/>"));
+        assertTrue(generatedWorkflow.contains("<ok to=\"test-import-3\"/>"));
+        assertTrue(generatedWorkflow.contains("<ok to=\"test-import-4\"/>"));
+        assertEquals(3, StringUtils.countMatches(generatedWorkflow, "<ok to=\"test-join\"/>"));
+    }
+
+    @Test
+    public void should_chainImportsWithoutFork_when_parallelismIsOne() throws IOException {
+        SqoopMultiTableImportJob job = getDefaultMultiTableJob("users", "orders");
+        job.setParallelism(1);
+
+        oozieService.sqoopMultiTableImportJob(job, orgId);
+
+        String generatedWorkflow = InMemoryOrgSpecificSpace.getWorkflowXml();
+        assertFalse(generatedWorkflow.contains("<fork"));
+        assertFalse(generatedWorkflow.contains("<join"));
+        assertTrue(generatedWorkflow.contains("<start to=\"test-import-0\"/>"));
+        assertTrue(generatedWorkflow.contains("<ok to=\"test-import-1\"/>"));
+        assertTrue(generatedWorkflow.contains("--table orders"));
+    }
+
+    private SqoopImportJob getDefaultPostgresJob() {
+        SqoopImportJob sqoopImportJob = new SqoopImportJob();
+        sqoopImportJob.setName("test");
+
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setJdbcUri("jdbc:postgresql");
+        sqoopImport.setTable("table_in_database");
+        sqoopImport.setImportMode("append");
+        sqoopImport.setUsername("john");
+        sqoopImport.setPassword("doe");
+        sqoopImportJob.setSqoopImport(sqoopImport);
+        return sqoopImportJob;
+    }
+
+    private SqoopMultiTableImportJob getDefaultMultiTableJob(String... tables) {
+        SqoopMultiTableImportJob job = new SqoopMultiTableImportJob();
+        job.setName("test");
+        job.setTables(Arrays.asList(tables));
+
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setJdbcUri("jdbc:postgresql");
+        sqoopImport.setImportMode("append");
+        sqoopImport.setUsername("john");
+        sqoopImport.setPassword("doe");
+        job.setSqoopImport(sqoopImport);
+        return job;
+    }
+
     private SqoopScheduledImportJob getDefaultScheduledSqoopJob() {
         SqoopScheduledImportJob sqoopScheduledImportJob = new SqoopScheduledImportJob();
         sqoopScheduledImportJob.setName("test");
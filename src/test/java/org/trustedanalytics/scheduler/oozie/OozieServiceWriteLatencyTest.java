@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.trustedanalytics.scheduler.DatabaseProvider;
+import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.filesystem.HdfsOrgSpecificSpaceFactory;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopScheduledImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopJobMapper;
+import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
+import org.trustedanalytics.scheduler.utils.ConstantJobIdSupplier;
+import org.trustedanalytics.scheduler.utils.MockTokenProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// local file system observing the writes of a scheduled import submission
+public class OozieServiceWriteLatencyTest {
+
+    // workflow.xml, coordinator.xml, driver.properties and the password file
+    private static final int JOB_FILES = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger mkdirsCalls = new AtomicInteger();
+    private final AtomicBoolean overlapped = new AtomicBoolean(true);
+    private volatile CountDownLatch writesInProgress;
+    private HdfsOrgSpecificSpaceFactory spaceFactory;
+    private ParallelFileWriter parallelWriter;
+
+    @Before
+    public void setUp() throws IOException {
+        final URI root = folder.getRoot().toURI();
+        final LocalFileSystem slowFileSystem = new LocalFileSystem() {
+            @Override
+            public URI getUri() {
+                return URI.create(root.toString().replaceAll("/$", ""));
+            }
+
+            @Override
+            public FSDataOutputStream create(Path path) throws IOException {
+                awaitOtherWrites();
+                return getRawFileSystem().create(path);
+            }
+
+            @Override
+            public FSDataOutputStream create(Path path, FsPermission permission, boolean overwrite, int bufferSize,
+                                             short replication, long blockSize, Progressable progress) throws IOException {
+                awaitOtherWrites();
+                return getRawFileSystem().create(path, permission, overwrite, bufferSize, replication, blockSize, progress);
+            }
+
+            @Override
+            public boolean mkdirs(Path path) throws IOException {
+                mkdirsCalls.incrementAndGet();
+                return super.mkdirs(path);
+            }
+        };
+        slowFileSystem.initialize(URI.create("file:///"), new Configuration());
+
+        spaceFactory = new HdfsOrgSpecificSpaceFactory(org -> slowFileSystem, new MockTokenProvider(), 10, 600);
+        parallelWriter = new ParallelFileWriter(4);
+    }
+
+    @After
+    public void tearDown() {
+        parallelWriter.shutdown();
+    }
+
+    @Test
+    public void should_writeJobFilesConcurrently_when_submittingScheduledImport() throws IOException {
+        // every write waits until all job files are being written, which only happens when they overlap
+        writesInProgress = new CountDownLatch(JOB_FILES);
+
+        submit(oozieService(parallelWriter), scheduledJob("parallel"));
+
+        assertTrue(folder.getRoot().toPath().resolve("org/org/oozie-jobs/parallel-timestamp/coordinator.xml").toFile().exists());
+        assertEquals(0, writesInProgress.getCount());
+        assertTrue(overlapped.get());
+    }
+
+    @Test
+    public void should_skipMkdirs_when_directoryIsKnownToExist() throws IOException {
+        OozieService oozieService = oozieService(parallelWriter);
+        SqoopScheduledImportJob job = scheduledJob("with-app-path");
+        job.setAppPath("apps/import");
+        submit(oozieService, job);
+
+        job = scheduledJob("with-app-path");
+        job.setAppPath("apps/import");
+        submit(oozieService, job);
+
+        assertEquals(1, mkdirsCalls.get());
+    }
+
+    private OozieService oozieService(ParallelFileWriter fileWriter) {
+        return new OozieService(spaceFactory, Mockito.mock(OozieClient.class), new ConstantJobIdSupplier(),
+                new SqoopJobMapper(Mockito.mock(DatabaseProvider.class), 5000000),
+                JobContext.builder().jobTracker("job_tracker").nameNode("name_node").sqoopMetastore("metastore").build(),
+                fileWriter, new OozieTemplateStore(false, fileWriter), 8);
+    }
+
+    private static void submit(OozieService oozieService, SqoopScheduledImportJob job) throws IOException {
+        oozieService.sqoopScheduledImportJob(job, "org");
+    }
+
+    private static SqoopScheduledImportJob scheduledJob(String name) {
+        SqoopScheduledImportJob job = new SqoopScheduledImportJob();
+        job.setName(name);
+        OozieSchedule schedule = new OozieSchedule(LocalDateTime.of(2077, 7, 4, 8, 15),
+                LocalDateTime.of(2077, 7, 6, 8, 15), ZoneId.of("UTC"));
+        schedule.setFrequency(new OozieFrequency("minutes", 10L));
+        job.setSchedule(schedule);
+
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setJdbcUri("jdbc:postgresql://host/db");
+        sqoopImport.setTable("table");
+        sqoopImport.setImportMode("append");
+        sqoopImport.setUsername("john");
+        sqoopImport.setPassword("doe");
+        job.setSqoopImport(sqoopImport);
+        return job;
+    }
+
+    private void awaitOtherWrites() {
+        CountDownLatch latch = writesInProgress;
+        if (latch == null) {
+            return;
+        }
+        latch.countDown();
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                overlapped.set(false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            overlapped.set(false);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.trustedanalytics.scheduler.DatabaseProvider;
+import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.filesystem.HdfsOrgSpecificSpaceFactory;
+import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpace;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopCommand;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopJobMapper;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopScheduledImportJob;
+import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
+import org.trustedanalytics.scheduler.utils.MockTokenProvider;
+import org.trustedanalytics.scheduler.utils.UniqueIdSupplier;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class OozieTemplateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger templateFilesCreated = new AtomicInteger();
+    private final OozieClient oozieClient = Mockito.mock(OozieClient.class);
+    private LocalFileSystem fileSystem;
+    private ParallelFileWriter fileWriter;
+    private OozieService oozieService;
+
+    @Before
+    public void setUp() throws IOException {
+        final URI root = folder.getRoot().toURI();
+        fileSystem = new LocalFileSystem() {
+            @Override
+            public URI getUri() {
+                return URI.create(root.toString().replaceAll("/$", ""));
+            }
+
+            @Override
+            public FSDataOutputStream create(Path path) throws IOException {
+                if (path.toString().contains("/oozie-templates/")) {
+                    templateFilesCreated.incrementAndGet();
+                }
+                return getRawFileSystem().create(path);
+            }
+        };
+        fileSystem.initialize(URI.create("file:///"), new Configuration());
+
+        fileWriter = new ParallelFileWriter(4);
+        oozieService = newOozieService();
+    }
+
+    // a new service does not remember the templates stored by the previous one, like after a restart
+    private OozieService newOozieService() {
+        return new OozieService(new HdfsOrgSpecificSpaceFactory(org -> fileSystem, new MockTokenProvider(), 10, 600),
+                oozieClient, new UniqueIdSupplier(""), new SqoopJobMapper(Mockito.mock(DatabaseProvider.class), 5000000),
+                JobContext.builder().jobTracker("job_tracker").nameNode("name_node").sqoopMetastore("metastore").build(),
+                fileWriter, new OozieTemplateStore(true, fileWriter), 8);
+    }
+
+    @After
+    public void tearDown() {
+        fileWriter.shutdown();
+    }
+
+    @Test
+    public void should_writeTemplateOnce_when_scheduledJobsShareShape() throws IOException {
+        oozieService.sqoopScheduledImportJob(scheduledJob("first", "table_a"), "org");
+        oozieService.sqoopScheduledImportJob(scheduledJob("second", "table_b"), "org");
+
+        ArgumentCaptor<String> appPaths = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Map> parameters = ArgumentCaptor.forClass(Map.class);
+        verify(oozieClient, times(2)).submitCoordinatedJob(appPaths.capture(), anyString(), parameters.capture());
+
+        assertEquals(4, templateFilesCreated.get());
+        assertEquals(1, templateDirs().length);
+        for (File jobDir : jobDirs()) {
+            assertArrayEquals(new String[] {SqoopCommand.PASSWORD_FILE}, jobDir.list((dir, name) -> !name.startsWith(".")));
+        }
+        assertEquals(appPaths.getAllValues().get(0), appPaths.getAllValues().get(1));
+        assertEquals("first", parameters.getAllValues().get(0).get(OozieService.JOB_NAME));
+        assertEquals("second", parameters.getAllValues().get(1).get(OozieService.JOB_NAME));
+        assertTrue(parameters.getAllValues().get(1).get(OozieService.SQOOP_CREATE_COMMAND).toString().contains("--table table_b"));
+    }
+
+    @Test
+    public void should_keepJobValuesOutOfTemplate_when_schedulingImport() throws IOException {
+        oozieService.sqoopScheduledImportJob(scheduledJob("first", "table_a"), "org");
+
+        File template = templateDirs()[0];
+        String workflow = new String(Files.readAllBytes(new File(template, "workflow.xml").toPath()), StandardCharsets.UTF_8);
+        String coordinator = new String(Files.readAllBytes(new File(template, "coordinator.xml").toPath()), StandardCharsets.UTF_8);
+
+        assertTrue(workflow.contains("<command>${sqoopCreateCommand}</command>"));
+        assertTrue(workflow.contains("${fs:exists(flagPath) eq true}"));
+        assertFalse(workflow.contains("table_a"));
+        assertTrue(coordinator.contains("frequency=\"${coord:minutes(frequencyAmount)}\""));
+        assertTrue(coordinator.contains("<app-path>${workflowAppPath}</app-path>"));
+        assertFalse(coordinator.contains("first"));
+        assertTrue(new File(template, OozieService.SQOOP_DRIVER_PROPERTIES_FILE).exists());
+    }
+
+    @Test
+    public void should_storeSeparateTemplates_when_jobShapesDiffer() throws IOException {
+        oozieService.sqoopScheduledImportJob(scheduledJob("append", "table"), "org");
+        SqoopScheduledImportJob overwrite = scheduledJob("overwrite", "table");
+        overwrite.getSqoopImport().setImportMode("overwrite");
+        oozieService.sqoopScheduledImportJob(overwrite, "org");
+
+        assertEquals(2, templateDirs().length);
+    }
+
+    @Test
+    public void should_passCommandAsProperty_when_submittingImport() throws IOException {
+        oozieService.sqoopImportJob(importJob("table_c"), "org");
+        oozieService.sqoopImportJob(importJob("table_d"), "org");
+
+        ArgumentCaptor<Map> parameters = ArgumentCaptor.forClass(Map.class);
+        verify(oozieClient, times(2)).submitWorkflowJob(anyString(), anyString(), parameters.capture());
+
+        assertEquals(3, templateFilesCreated.get());
+        assertTrue(parameters.getValue().get(OozieService.SQOOP_COMMAND).toString().contains("--table table_d"));
+    }
+
+    @Test
+    public void should_keepPasswordOutOfJobProperties_when_submittingImport() throws IOException {
+        oozieService.sqoopImportJob(importJob("table_e"), "org");
+
+        ArgumentCaptor<Map> parameters = ArgumentCaptor.forClass(Map.class);
+        verify(oozieClient).submitWorkflowJob(anyString(), anyString(), parameters.capture());
+
+        String command = parameters.getValue().get(OozieService.SQOOP_COMMAND).toString();
+        assertFalse(command.contains("doe"));
+        assertTrue(command.contains("--password-file " + new Path(folder.getRoot().toURI()) + "org/org/oozie-jobs/"));
+        File passwordFile = new File(jobDirs()[0], SqoopCommand.PASSWORD_FILE);
+        assertEquals("doe", new String(Files.readAllBytes(passwordFile.toPath()), StandardCharsets.UTF_8));
+        assertEquals(new FsPermission((short) 0600),
+                fileSystem.getFileStatus(new Path(passwordFile.toURI())).getPermission());
+    }
+
+    @Test
+    public void should_leaveOnlyCompleteTemplates_when_templateStored() throws IOException {
+        oozieService.sqoopScheduledImportJob(scheduledJob("first", "table_a"), "org");
+
+        File[] entries = new File(folder.getRoot(), "org/org/oozie-templates").listFiles((dir, name) -> !name.startsWith("."));
+        assertEquals(1, entries.length);
+        assertTrue(new File(entries[0], "_STORED").exists());
+        assertArrayEquals(entries, templateDirs());
+    }
+
+    @Test
+    public void should_reuseStoredTemplate_when_serviceRestarted() throws IOException {
+        oozieService.sqoopScheduledImportJob(scheduledJob("first", "table_a"), "org");
+        templateFilesCreated.set(0);
+
+        newOozieService().sqoopScheduledImportJob(scheduledJob("second", "table_b"), "org");
+
+        assertEquals(0, templateFilesCreated.get());
+        assertEquals(1, templateDirs().length);
+    }
+
+    @Test
+    public void should_rewriteTemplate_when_storedOneIsIncomplete() throws IOException {
+        oozieService.sqoopScheduledImportJob(scheduledJob("first", "table_a"), "org");
+        File template = templateDirs()[0];
+        byte[] workflow = Files.readAllBytes(new File(template, "workflow.xml").toPath());
+        fileSystem.delete(new Path(new File(template, "_STORED").toURI()), false);
+        fileSystem.delete(new Path(new File(template, "workflow.xml").toURI()), false);
+
+        newOozieService().sqoopScheduledImportJob(scheduledJob("second", "table_b"), "org");
+
+        assertArrayEquals(new File[] {template}, templateDirs());
+        assertArrayEquals(workflow, Files.readAllBytes(new File(template, "workflow.xml").toPath()));
+        assertTrue(new File(template, "_STORED").exists());
+    }
+
+    @Test
+    public void should_keepExistingDirectory_when_renameTargetExists() throws IOException {
+        OrgSpecificSpace space = new HdfsOrgSpecificSpaceFactory(org -> fileSystem, new MockTokenProvider(), 10, 600)
+                .getOrgSpecificSpace("org");
+        Path source = space.resolveOozieTemplateDir("source");
+        Path target = space.resolveOozieTemplateDir("target");
+        space.createFile(new Path(source, "a"), new ByteArrayInputStream(new byte[] {1}));
+        space.createFile(new Path(target, "b"), new ByteArrayInputStream(new byte[] {2}));
+
+        assertFalse(space.rename(source, target));
+        assertTrue(space.fileExists(new Path(source, "a")));
+        assertFalse(space.fileExists(new Path(target, "a")));
+        assertFalse(space.fileExists(new Path(target, "source")));
+    }
+
+    private File[] jobDirs() {
+        File[] dirs = new File(folder.getRoot(), "org/org/oozie-jobs").listFiles(File::isDirectory);
+        return dirs == null ? new File[0] : dirs;
+    }
+
+    private File[] templateDirs() {
+        File[] dirs = new File(folder.getRoot(), "org/org/oozie-templates").listFiles(File::isDirectory);
+        return dirs == null ? new File[0] : dirs;
+    }
+
+    private static SqoopImportJob importJob(String table) {
+        SqoopImportJob job = new SqoopImportJob();
+        job.setName("once");
+        job.setSqoopImport(sqoopImport(table));
+        return job;
+    }
+
+    private static SqoopScheduledImportJob scheduledJob(String name, String table) {
+        SqoopScheduledImportJob job = new SqoopScheduledImportJob();
+        job.setName(name);
+        OozieSchedule schedule = new OozieSchedule(LocalDateTime.of(2077, 7, 4, 8, 15),
+                LocalDateTime.of(2077, 7, 6, 8, 15), ZoneId.of("UTC"));
+        schedule.setFrequency(new OozieFrequency("minutes", 10L));
+        job.setSchedule(schedule);
+        job.setSqoopImport(sqoopImport(table));
+        return job;
+    }
+
+    private static SqoopImport sqoopImport(String table) {
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setJdbcUri("jdbc:postgresql://host/db");
+        sqoopImport.setTable(table);
+        sqoopImport.setImportMode("append");
+        sqoopImport.setUsername("john");
+        sqoopImport.setPassword("doe");
+        return sqoopImport;
+    }
+}
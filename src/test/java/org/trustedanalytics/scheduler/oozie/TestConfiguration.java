@@ -28,7 +28,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mock.env.MockEnvironment;
 import org.trustedanalytics.scheduler.*;
+import org.trustedanalytics.scheduler.client.JobFields;
 import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter;
 import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopJobMapper;
 import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
 import org.trustedanalytics.scheduler.utils.*;
@@ -38,6 +40,8 @@ import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class TestConfiguration {
@@ -78,17 +82,26 @@ public class TestConfiguration {
     public OozieService getOozieService() {
 
         oozieClient = Mockito.mock(OozieClient.class);
+        final ParallelFileWriter fileWriter = new ParallelFileWriter(2);
         return new OozieService(new InMemoryOrgSpecificSpaceFactory(),
                 oozieClient,
                 new ConstantJobIdSupplier(),
-                new SqoopJobMapper(databaseProvider()),
-                jobContext
+                new SqoopJobMapper(databaseProvider(), 1000),
+                jobContext,
+                fileWriter,
+                new OozieTemplateStore(false, fileWriter),
+                3
                 );
     }
 
     @Bean
     public OozieClient getOozieClient() throws IOException, GeneralSecurityException {
-        return new OozieClient(new MockRestOperationsFactory(), new MockTokenProvider(), jobContext);
+        return new OozieClient(new MockRestOperationsFactory(), new MockTokenProvider(), jobContext, pageFetchExecutor());
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService pageFetchExecutor() {
+        return Executors.newFixedThreadPool(2);
     }
 
     @Bean
@@ -101,6 +114,7 @@ public class TestConfiguration {
         simpleModule.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer());
 
         objectMapper.registerModules(new Jdk8Module(), simpleModule);
+        objectMapper.setFilterProvider(JobFields.serializeAllByDefault());
 
         return objectMapper;
     }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.oozie.serialization;
+
+import org.junit.Test;
+import org.trustedanalytics.scheduler.oozie.OozieFrequency;
+import org.trustedanalytics.scheduler.oozie.OozieSchedule;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.Assert.assertEquals;
+
+public class OozieXmlWriterTest {
+
+    private static final JobContext JOB_CONTEXT = JobContext.builder()
+            .queueName("org&<queue>")
+            .jobTracker("job_tracker")
+            .nameNode("hdfs://name_node")
+            .sqoopMetastore("metastore")
+            .build();
+
+    @Test
+    public void should_write_same_bytes_as_dom_serializer_when_rendering_workflow() throws Exception {
+        byte[] written = render(workflow());
+
+        assertEquals(new String(domSerialized(written), StandardCharsets.UTF_8), new String(written, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void should_write_same_bytes_as_dom_serializer_when_rendering_coordinator() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        coordinator().writeTo(out);
+        byte[] written = out.toByteArray();
+
+        assertEquals(new String(domSerialized(written), StandardCharsets.UTF_8), new String(written, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void should_escape_like_dom_serializer_when_values_contain_special_characters() throws Exception {
+        StringBuilder value = new StringBuilder();
+        for (char c = 1; c < 0x200; c++) {
+            value.append(c);
+        }
+        value.append("\u2028\ud83d\ude00");
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = document.createElement("root");
+        root.setAttribute("value", value.toString());
+        Element child = document.createElement("child");
+        child.setTextContent(value.toString());
+        root.appendChild(child);
+        root.appendChild(document.createElement("empty"));
+        document.appendChild(root);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OozieXmlWriter writer = new OozieXmlWriter(out);
+        writer.start("root").attribute("value", value.toString())
+                .element("child", value.toString())
+                .element("empty", "")
+              .end()
+              .flush();
+
+        assertEquals(new String(serialize(document), StandardCharsets.UTF_8), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static WorkflowInstance workflow() {
+        return WorkflowInstance.builder(JOB_CONTEXT)
+                .setName("test-app")
+                .setStartNode("test-decision")
+                .fileExistDecision("/flag \"path\"")
+                    .setName("test-decision")
+                    .then("test-cleanup")
+                    .orElse("test-create")
+                    .and()
+                .sqoopAction()
+                    .setCommand("job --create test -- import --query 'SELECT * FROM t WHERE a < 5 AND b > 6' -- \u00e9t\u00e9")
+                    .setName("test-create")
+                    .addFile("driver.properties")
+                    .then("test-flag")
+                    .and()
+                .createFile()
+                    .setPath("/flag \"path\"")
+                    .setName("test-flag")
+                    .then("test-exec")
+                    .and()
+                .deleteFile()
+                    .setPath("/target\tdir")
+                    .setName("test-cleanup")
+                    .then("test-exec")
+                    .and()
+                .sqoopAction()
+                    .setCommand("job --exec test \ud83d\ude00")
+                    .setName("test-exec")
+                    .then("end")
+                    .and()
+                .sqoopKill("Error message[${wf:errorMessage(wf:lastErrorNode())}]")
+                .build();
+    }
+
+    private static CoordinatorInstance coordinator() {
+        OozieSchedule schedule = new OozieSchedule(LocalDateTime.of(2077, 7, 4, 8, 15),
+                LocalDateTime.of(2077, 7, 6, 8, 15), ZoneId.of("UTC"));
+        schedule.setFrequency(new OozieFrequency("minutes", 10L));
+        return CoordinatorInstance.builder(JOB_CONTEXT)
+                .setName("test \"coordinator\"")
+                .setAppPath("/apps/test & co")
+                .setOozieLibpath("/user/oozie/share/lib/")
+                .setOozieUseSystemLibpath(true)
+                .setOozieSchedule(schedule)
+                .build();
+    }
+
+    private static byte[] render(WorkflowInstance workflow) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workflow.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static byte[] domSerialized(byte[] xml) throws Exception {
+        return serialize(parse(xml));
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+        removeIndentation(document.getDocumentElement());
+        return document;
+    }
+
+    // the renderer built its dom without whitespace nodes, the serializer adds the indentation itself
+    private static void removeIndentation(Node node) {
+        Node child = node.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE && child.getTextContent().trim().isEmpty()) {
+                node.removeChild(child);
+            } else {
+                removeIndentation(child);
+            }
+            child = next;
+        }
+    }
+
+    // output settings the XMLBuilder2 based renderer used
+    private static byte[] serialize(Document document) throws Exception {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(document), new StreamResult(out));
+        return out.toByteArray();
+    }
+}
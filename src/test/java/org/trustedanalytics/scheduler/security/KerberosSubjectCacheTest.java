@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.security;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.trustedanalytics.hadoop.config.client.oauth.TapOauthToken;
+
+import javax.security.auth.Subject;
+import javax.security.auth.kerberos.KerberosPrincipal;
+import javax.security.auth.kerberos.KerberosTicket;
+import javax.security.auth.login.LoginException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class KerberosSubjectCacheTest {
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private TapOauthToken john;
+    private TapOauthToken jane;
+
+    @Before
+    public void setUp() {
+        john = token("john");
+        jane = token("jane");
+    }
+
+    @Test
+    public void should_reuseSubject_when_sameUserLogsInAgain() throws LoginException {
+        KerberosSubjectCache cache = new KerberosSubjectCache(token -> {
+            logins.incrementAndGet();
+            return new Subject();
+        }, 10, 300, 3600);
+
+        Subject first = cache.login(john);
+        Subject second = cache.login(john);
+        cache.login(jane);
+
+        assertSame(first, second);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void should_loginAgain_when_ticketAboutToExpire() throws LoginException {
+        KerberosSubjectCache cache = new KerberosSubjectCache(token -> {
+            logins.incrementAndGet();
+            return subjectWithTicketEndingAt(new Date(System.currentTimeMillis() + 60000));
+        }, 10, 300, 3600);
+
+        Subject first = cache.login(john);
+        Subject second = cache.login(john);
+
+        assertNotSame(first, second);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void should_loginAgain_when_defaultTtlElapsed() throws LoginException {
+        KerberosSubjectCache cache = new KerberosSubjectCache(token -> {
+            logins.incrementAndGet();
+            return new Subject();
+        }, 10, 0, 0);
+
+        cache.login(john);
+        cache.login(john);
+
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void should_rethrowAndNotCache_when_loginFails() throws LoginException {
+        KerberosSubjectCache cache = new KerberosSubjectCache(token -> {
+            if (logins.incrementAndGet() == 1) {
+                throw new LoginException("KDC unavailable");
+            }
+            return new Subject();
+        }, 10, 300, 3600);
+
+        try {
+            cache.login(john);
+            fail("login failure expected");
+        } catch (LoginException e) {
+            assertEquals("KDC unavailable", e.getMessage());
+        }
+
+        cache.login(john);
+        assertEquals(2, logins.get());
+    }
+
+    private static TapOauthToken token(String userId) {
+        TapOauthToken token = Mockito.mock(TapOauthToken.class);
+        Mockito.when(token.getUserId()).thenReturn(userId);
+        return token;
+    }
+
+    private static Subject subjectWithTicketEndingAt(Date endTime) {
+        KerberosPrincipal client = new KerberosPrincipal("john@EXAMPLE.COM");
+        KerberosPrincipal server = new KerberosPrincipal("krbtgt/EXAMPLE.COM@EXAMPLE.COM");
+        KerberosTicket ticket = new KerberosTicket(new byte[] {0}, client, server, new byte[] {0}, 1, new boolean[32],
+                new Date(), new Date(), endTime, null, null);
+        Subject subject = new Subject();
+        subject.getPrivateCredentials().add(ticket);
+        return subject;
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.submission;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trustedanalytics.scheduler.DatabaseProvider;
+import org.trustedanalytics.scheduler.client.OozieClient;
+import org.trustedanalytics.scheduler.client.OozieJobId;
+import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpaceFactory;
+import org.trustedanalytics.scheduler.filesystem.ParallelFileWriter;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.oozie.OozieService;
+import org.trustedanalytics.scheduler.oozie.OozieTemplateStore;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImport;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportBatch;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopImportJob;
+import org.trustedanalytics.scheduler.oozie.jobs.sqoop.SqoopJobMapper;
+import org.trustedanalytics.scheduler.oozie.serialization.JobContext;
+import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
+import org.trustedanalytics.scheduler.utils.ConstantJobIdSupplier;
+import org.trustedanalytics.scheduler.utils.InMemoryOrgSpecificSpace;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchSubmissionServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSubmissionServiceTest.class);
+    private static final String ORG = "org";
+    private static final int OOZIE_LATENCY_MS = 5;
+
+    @Mock
+    private OozieClient oozieClient;
+
+    @Mock
+    private OrgJobIds orgJobIds;
+
+    @Mock
+    private DatabaseProvider databaseProvider;
+
+    private final AtomicInteger spacesCreated = new AtomicInteger();
+    private final AtomicInteger oozieCalls = new AtomicInteger();
+
+    private BatchSubmissionService batchSubmissionService;
+
+    @Before
+    public void setUp() {
+        when(oozieClient.submitWorkflowJob(anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(OOZIE_LATENCY_MS);
+            OozieJobId jobId = new OozieJobId();
+            jobId.setId("job-" + oozieCalls.incrementAndGet());
+            return jobId;
+        });
+
+        OrgSpecificSpaceFactory spaceFactory = org -> {
+            spacesCreated.incrementAndGet();
+            return new InMemoryOrgSpecificSpace();
+        };
+        ParallelFileWriter fileWriter = new ParallelFileWriter(2);
+        OozieService oozieService = new OozieService(spaceFactory, oozieClient, new ConstantJobIdSupplier(),
+                new SqoopJobMapper(databaseProvider, 5000000),
+                JobContext.builder().jobTracker("job_tracker").nameNode("name_node").sqoopMetastore("metastore").build(),
+                fileWriter, new OozieTemplateStore(false, fileWriter), 8);
+
+        batchSubmissionService = new BatchSubmissionService(oozieService, spaceFactory, orgJobIds, 8);
+    }
+
+    @After
+    public void tearDown() {
+        batchSubmissionService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void should_submitAllJobsWithSingleSpaceAndSave_when_batchIsSubmitted() throws Exception {
+        SqoopImportBatch batch = new SqoopImportBatch();
+        for (int i = 0; i < 500; i++) {
+            batch.getWorkflows().add(importJob("table_" + i));
+        }
+
+        long start = System.currentTimeMillis();
+        BatchSubmissionResult result = batchSubmissionService.submit(batch, ORG);
+        long duration = System.currentTimeMillis() - start;
+        LOGGER.info("Submitted {} jobs in {} ms against stub Oozie with {} ms latency",
+                batch.getWorkflows().size(), duration, OOZIE_LATENCY_MS);
+
+        assertEquals(500, result.getWorkflows().size());
+        result.getWorkflows().forEach(job -> assertNull(job.getError()));
+        assertEquals(1, spacesCreated.get());
+
+        ArgumentCaptor<Collection> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(orgJobIds, times(1)).saveAll(saved.capture());
+        assertEquals(500, saved.getValue().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void should_reportFailedJobAndSaveOthers_when_oneSubmissionFails() throws Exception {
+        when(oozieClient.submitWorkflowJob(contains("table_failing"), anyString())).thenThrow(new IllegalStateException("Oozie error"));
+
+        SqoopImportBatch batch = new SqoopImportBatch();
+        batch.getWorkflows().add(importJob("table_ok"));
+        batch.getWorkflows().add(importJob("table_failing"));
+
+        BatchSubmissionResult result = batchSubmissionService.submit(batch, ORG);
+
+        assertNull(result.getWorkflows().get(0).getError());
+        assertEquals("Oozie error", result.getWorkflows().get(1).getError());
+
+        ArgumentCaptor<Collection> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(orgJobIds).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(ORG, ((OozieJobEntity) saved.getValue().iterator().next()).getOrgId());
+    }
+
+    @Test
+    public void should_submitWorkflows_when_coordinatedListIsNull() throws Exception {
+        SqoopImportBatch batch = new SqoopImportBatch();
+        batch.getWorkflows().add(importJob("table_ok"));
+        batch.setCoordinated(null);
+
+        BatchSubmissionResult result = batchSubmissionService.submit(batch, ORG);
+
+        assertEquals(1, result.getWorkflows().size());
+        assertEquals(0, result.getCoordinated().size());
+    }
+
+    private static SqoopImportJob importJob(String table) {
+        SqoopImportJob job = new SqoopImportJob();
+        job.setName(table);
+        SqoopImport sqoopImport = new SqoopImport();
+        sqoopImport.setJdbcUri("jdbc:postgresql://host/db");
+        sqoopImport.setTable(table);
+        sqoopImport.setImportMode("append");
+        sqoopImport.setUsername("john");
+        sqoopImport.setPassword("doe");
+        job.setSqoopImport(sqoopImport);
+        return job;
+    }
+}
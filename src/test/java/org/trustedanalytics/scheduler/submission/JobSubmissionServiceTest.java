@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.submission;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.trustedanalytics.scheduler.client.OozieJobId;
+import org.trustedanalytics.scheduler.filtering.OrgJobIds;
+import org.trustedanalytics.scheduler.persistence.domain.OozieJobEntity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobSubmissionServiceTest {
+
+    private static final String ORG = "org";
+
+    @Mock
+    private OrgJobIds orgJobIds;
+
+    private JobSubmissionService jobSubmissionService;
+
+    @Before
+    public void setUp() {
+        jobSubmissionService = new JobSubmissionService(orgJobIds, 1, 1, 60);
+    }
+
+    @After
+    public void tearDown() {
+        jobSubmissionService.shutdown();
+    }
+
+    @Test
+    public void should_storeJobEntity_when_submissionSucceeded() throws Exception {
+        CountDownLatch submitted = new CountDownLatch(1);
+        JobSubmission ticket = jobSubmissionService.submit(ORG, () -> {
+            submitted.countDown();
+            return jobId("0000001-oozie-W");
+        });
+
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        awaitStatus(ticket, SubmissionStatus.SUBMITTED);
+
+        assertEquals("0000001-oozie-W", ticket.getJobId());
+        verify(orgJobIds).save(new OozieJobEntity("0000001-oozie-W", ORG));
+    }
+
+    @Test
+    public void should_reportError_when_submissionFailed() throws Exception {
+        JobSubmission ticket = jobSubmissionService.submit(ORG, () -> {
+            throw new IllegalStateException("Oozie is down");
+        });
+
+        awaitStatus(ticket, SubmissionStatus.FAILED);
+
+        assertEquals("Oozie is down", ticket.getError());
+    }
+
+    @Test
+    public void should_hideSubmission_when_requestedForOtherOrg() {
+        JobSubmission ticket = jobSubmissionService.submit(ORG, () -> jobId("id"));
+
+        assertTrue(jobSubmissionService.get(ticket.getId(), ORG).isPresent());
+        assertFalse(jobSubmissionService.get(ticket.getId(), "other-org").isPresent());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void should_rejectSubmission_when_workersAndQueueAreBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            jobSubmissionService.submit(ORG, () -> {
+                release.await();
+                return jobId("running");
+            });
+            jobSubmissionService.submit(ORG, () -> jobId("queued"));
+            jobSubmissionService.submit(ORG, () -> jobId("rejected"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static OozieJobId jobId(String id) {
+        OozieJobId jobId = new OozieJobId();
+        jobId.setId(id);
+        return jobId;
+    }
+
+    private static void awaitStatus(JobSubmission ticket, SubmissionStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ticket.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(status, ticket.getStatus());
+    }
+}
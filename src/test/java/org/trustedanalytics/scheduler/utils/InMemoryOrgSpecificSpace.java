@@ -20,15 +20,20 @@ import lombok.Setter;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.trustedanalytics.scheduler.filesystem.FileContent;
 import org.trustedanalytics.scheduler.filesystem.OrgSpecificSpace;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-// no thread safe for unit tests only
+// for unit tests only, files can be written concurrently but the last written xml wins
 public class InMemoryOrgSpecificSpace implements OrgSpecificSpace {
 
     @Getter
@@ -41,18 +46,28 @@ public class InMemoryOrgSpecificSpace implements OrgSpecificSpace {
     @Setter
     private static String oozieDirectory = "oozieDirectory";
 
-    private static Map<Path, String> files = new HashMap<>();
+    private static Map<Path, String> files = new ConcurrentHashMap<>();
 
 
     @Override
-    public Path createOozieCoordinator(Path coordinatorDirPath, InputStream in) throws IOException {
-        coordinatorXml = IOUtils.toString(in, "UTF-8");
+    public Path createOozieCoordinator(Path coordinatorDirPath, FileContent content) throws IOException {
+        coordinatorXml = asString(content);
+        return resolveOozieCoordinator(coordinatorDirPath);
+    }
+
+    @Override
+    public Path createOozieWorkflow(Path workflowDirPath, FileContent content) throws IOException {
+        workflowXml = asString(content);
+        return resolveOozieWorkflow(workflowDirPath);
+    }
+
+    @Override
+    public Path resolveOozieCoordinator(Path coordinatorDirPath) {
         return coordinatorDirPath;
     }
 
     @Override
-    public Path createOozieWorkflow(Path workflowDirPath, InputStream in) throws IOException {
-        workflowXml = IOUtils.toString(in, "UTF-8");
+    public Path resolveOozieWorkflow(Path workflowDirPath) {
         return new Path(workflowDirPath, "scheduledJob/workflow.xml");
     }
 
@@ -70,6 +85,11 @@ public class InMemoryOrgSpecificSpace implements OrgSpecificSpace {
         }
     }
 
+    @Override
+    public Path resolveOozieTemplateDir(String contentHash) {
+        return resolveDir("oozie-templates", contentHash);
+    }
+
     @Override
     public String getNameNode() {
         return "test_namenode";
@@ -84,6 +104,11 @@ public class InMemoryOrgSpecificSpace implements OrgSpecificSpace {
         }
     }
 
+    @Override
+    public void createFile(Path path, InputStream in, FsPermission permission) {
+        createFile(path, in);
+    }
+
     @Override
     public boolean fileExists(Path path) throws IOException {
         return files.containsKey(path);
@@ -91,10 +116,51 @@ public class InMemoryOrgSpecificSpace implements OrgSpecificSpace {
 
     @Override
     public boolean createDirectory(Path ooziePath) throws IOException {
-        if (files.containsKey(ooziePath))
-            return false;
-        files.put(ooziePath,"");
-        return true;
+        return files.putIfAbsent(ooziePath, "") == null;
+    }
+
+    @Override
+    public boolean rename(Path source, Path target) throws IOException {
+        synchronized (files) {
+            if (files.containsKey(target)) {
+                return false;
+            }
+            for (Path path : new ArrayList<>(files.keySet())) {
+                final String relative = relative(source, path);
+                if (relative != null) {
+                    files.put(relative.isEmpty() ? target : new Path(target, relative), files.remove(path));
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean delete(Path path) throws IOException {
+        return files.keySet().removeIf(file -> relative(path, file) != null);
+    }
+
+    private static String relative(Path dir, Path path) {
+        final String prefix = dir.toString();
+        final String name = path.toString();
+        if (name.equals(prefix)) {
+            return "";
+        }
+        return name.startsWith(prefix + Path.SEPARATOR) ? name.substring(prefix.length() + 1) : null;
+    }
+
+    public static String getFileContent(String fileName) {
+        return files.entrySet().stream()
+                .filter(entry -> fileName.equals(entry.getKey().getName()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String asString(FileContent content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
     }
 
     private Path resolveDir(String path, String... more) {
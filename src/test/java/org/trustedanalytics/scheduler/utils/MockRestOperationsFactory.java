@@ -28,7 +28,7 @@ import java.security.GeneralSecurityException;
 public class MockRestOperationsFactory extends RestOperationsFactory {
 
     public MockRestOperationsFactory() throws IOException, GeneralSecurityException {
-        super(new LocalHdfsConfigProvider(), null, null);
+        super(new LocalHdfsConfigProvider(), null, null, null);
     }
 
     public RestTemplate getRestTemplate()  {
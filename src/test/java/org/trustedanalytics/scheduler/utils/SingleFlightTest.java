@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void should_shareResult_when_callForKeyIsInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return calls.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> second = executor.submit(() -> singleFlight.execute("key", calls::incrementAndGet));
+            while (singleFlight.getShared() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(Integer.valueOf(1), first.get());
+            assertEquals(Integer.valueOf(1), second.get());
+            assertEquals(1, calls.get());
+            assertEquals(1, singleFlight.getExecuted());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void should_callAgain_when_previousCallCompleted() {
+        singleFlight.execute("key", calls::incrementAndGet);
+        singleFlight.execute("key", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void should_rethrowException_when_callFails() {
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IllegalStateException("oozie down");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("oozie down", e.getMessage());
+        }
+        assertEquals(Integer.valueOf(1), singleFlight.execute("key", calls::incrementAndGet));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.trustedanalytics.scheduler.client.JobFields;
+import org.trustedanalytics.scheduler.client.OozieDates;
+import org.trustedanalytics.scheduler.client.OozieWorkflowJobInformation;
+import org.trustedanalytics.scheduler.client.Page;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+// serves fixed, newest first list of workflows the way Oozie pages /v1/jobs, for unit tests only
+public class StubOozieRestTemplate extends RestTemplate {
+
+    private static final DateTimeFormatter OOZIE_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+
+    private static final DateTimeFormatter FILTER_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
+    private static final ObjectMapper JSON = new ObjectMapper().setFilterProvider(JobFields.serializeAllByDefault());
+
+    private final List<OozieWorkflowJobInformation> workflows;
+    private final IntConsumer beforePage;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final List<String> requestedUrls = Collections.synchronizedList(new ArrayList<>());
+
+    public StubOozieRestTemplate(List<OozieWorkflowJobInformation> workflows) {
+        this(workflows, offset -> { });
+    }
+
+    /**
+     * @param beforePage called with the offset of every requested page before it is served, may block or throw
+     */
+    public StubOozieRestTemplate(List<OozieWorkflowJobInformation> workflows, IntConsumer beforePage) {
+        this.workflows = workflows;
+        this.beforePage = beforePage;
+    }
+
+    public static OozieWorkflowJobInformation workflow(String id, ZonedDateTime createdTime) {
+        OozieWorkflowJobInformation workflow = new OozieWorkflowJobInformation();
+        workflow.setId(id);
+        workflow.setStatus("SUCCEEDED");
+        workflow.setCreatedTime(oozieDate(createdTime));
+        workflow.setLastModTime(oozieDate(createdTime));
+        return workflow;
+    }
+
+    public static String oozieDate(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneId.of("GMT")).format(OOZIE_DATE_FORMAT);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public List<String> getRequestedUrls() {
+        return requestedUrls;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                          ParameterizedTypeReference<T> responseType, Object... uriVariables) throws RestClientException {
+        return new ResponseEntity<>((T) page(url), HttpStatus.OK);
+    }
+
+    @Override
+    public <T> T execute(String url, HttpMethod method, RequestCallback requestCallback,
+                         ResponseExtractor<T> responseExtractor, Object... uriVariables) throws RestClientException {
+        Page<OozieWorkflowJobInformation> page = page(url);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", page.getTotal());
+        body.put("workflows", page.getEntries());
+        try {
+            return responseExtractor.extractData(new MockClientHttpResponse(JSON.writeValueAsBytes(body), HttpStatus.OK));
+        } catch (IOException e) {
+            throw new RestClientException("Could not serve stubbed page", e);
+        }
+    }
+
+    private Page<OozieWorkflowJobInformation> page(String url) {
+        requestCount.incrementAndGet();
+        requestedUrls.add(url);
+
+        Map<String, List<String>> params = UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+        int offset = Integer.parseInt(params.get("offset").get(0));
+        beforePage.accept(offset);
+        int len = Integer.parseInt(params.get("len").get(0));
+        long createdAfter = createdAfter(params.get("filter"));
+        List<OozieWorkflowJobInformation> matching = workflows.stream()
+                .filter(workflow -> OozieDates.parseMillis(workflow.getCreatedTime()) >= createdAfter)
+                .collect(Collectors.toList());
+
+        Page<OozieWorkflowJobInformation> page = new Page<>();
+        page.setOffset(offset);
+        page.setLen(len);
+        page.setTotal(matching.size());
+        page.setWorkfows(matching.stream().skip(offset - 1).limit(len).collect(Collectors.toList()));
+        return page;
+    }
+
+    // Oozie applies startcreatedtime with minute precision, the exact window is left to the client
+    private static long createdAfter(List<String> filter) {
+        return Optional.ofNullable(filter)
+                .flatMap(values -> Arrays.stream(values.get(0).split(";")).filter(c -> c.startsWith("startcreatedtime=")).findFirst())
+                .map(criterion -> LocalDateTime.parse(criterion.substring("startcreatedtime=".length()), FILTER_DATE_FORMAT))
+                .map(OozieDates::toMillis)
+                .orElse(Long.MIN_VALUE);
+    }
+}
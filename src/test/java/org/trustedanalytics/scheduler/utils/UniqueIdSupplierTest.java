@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.scheduler.utils;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UniqueIdSupplierTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UniqueIdSupplierTest.class);
+    private static final int THREADS = 64;
+    private static final int IDS_PER_THREAD = 1000;
+
+    @Test
+    public void should_keepReadablePrefix_when_idIsGenerated() {
+        String id = new UniqueIdSupplier("node1").get("my job", null);
+
+        assertTrue(id, id.matches("my_job-\\d{6}-\\d{6}-node1-1"));
+    }
+
+    @Test
+    public void should_generateUniqueIds_when_manyThreadsSubmitAtOnce() throws Exception {
+        UniqueIdSupplier supplier = new UniqueIdSupplier("");
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < IDS_PER_THREAD; j++) {
+                        ids.add(supplier.get("job", null));
+                    }
+                    return null;
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            LOGGER.info("Generated {} ids with {} threads in {} ms",
+                    THREADS * IDS_PER_THREAD, THREADS, (System.nanoTime() - startTime) / 1_000_000);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+}